@@ -0,0 +1,211 @@
+package openpolitica.congreso;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link Fechas} contra el codigo que reemplazo: un formateador, un LocalDate y un Instant por
+ * fecha, y expresiones regulares para las correcciones. Los metodos "antes" son copia del codigo
+ * anterior de ProyectosLeyExtract. Con -prof gc se ve la memoria asignada por fecha.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FechasBenchmark {
+
+  static final int N = 1024;
+
+  // celdas de fecha del expediente tal como vienen: casi todas bien formadas, algunas corregidas
+  static final String[] DOCUMENTOS_RAROS = {
+      "Sinfecha", "02/15/19", "20/0708", "190220", "O14/01/21", "21/5/20", "15/0307", ", 22/09/09"
+  };
+
+  String[] indice = new String[N];
+  String[] seguimiento = new String[N];
+  String[] documento = new String[N];
+
+  @Setup
+  public void setup() {
+    var random = new Random(2021);
+    for (int i = 0; i < N; i++) {
+      var dia = 1 + random.nextInt(28);
+      var mes = 1 + random.nextInt(12);
+      var anio = 2006 + random.nextInt(16);
+      indice[i] = "%02d/%02d/%04d".formatted(mes, dia, anio);
+      seguimiento[i] = "%02d/%02d/%04d".formatted(dia, mes, anio);
+      documento[i] = switch (i % 8) {
+        case 0 -> DOCUMENTOS_RAROS[(i / 8) % DOCUMENTOS_RAROS.length];
+        case 1, 2 -> "%02d/%02d/%02d".formatted(dia, mes, anio % 100);
+        default -> seguimiento[i];
+      };
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void proyectoAntes(Blackhole bh) {
+    for (var texto : indice) bh.consume(fechaProyecto(texto));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void proyecto(Blackhole bh) {
+    for (var texto : indice) bh.consume(Fechas.proyecto(texto));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void seguimientoAntes(Blackhole bh) {
+    for (var texto : seguimiento) bh.consume(fecha(texto));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void seguimiento(Blackhole bh) {
+    for (var texto : seguimiento) bh.consume(Fechas.seguimiento(texto));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void documentoAntes(Blackhole bh) {
+    for (var texto : documento) bh.consume(fechaDocumento(texto));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N)
+  public void documento(Blackhole bh) {
+    for (var texto : documento) bh.consume(Fechas.documento(texto));
+  }
+
+  static Long fechaProyecto(String texto) {
+    return LocalDate.parse(texto, DateTimeFormatter.ofPattern("MM/dd/yyyy"))
+        .atStartOfDay()
+        .toInstant(ZoneOffset.ofHours(-5))
+        .toEpochMilli();
+  }
+
+  static Long fecha(String texto) {
+    return LocalDate.parse(texto
+            .replaceAll("58/08/2018", "08/08/2018")
+            .replaceAll("59/02/2017", "06/02/2017")
+            .replaceAll("60/02/2017", "06/02/2017")
+            .replaceAll("61/02/2017", "06/02/2017")
+            .replaceAll("62/02/2017", "06/02/2017")
+            // 2011
+            .replaceAll("35/07/2014", "25/07/2014")
+        , DateTimeFormatter.ofPattern("dd/MM/yyyy"))
+        .atStartOfDay()
+        .toInstant(ZoneOffset.ofHours(-5))
+        .toEpochMilli();
+  }
+
+  // fecha(Element) sobre td.text()
+  static Long fechaDocumento(String texto) {
+    if (texto.isBlank() || texto.equals("Sinfecha")) {
+      return null;
+    } else
+      if (texto.length() == 10 && !texto.startsWith(", ")) {
+        return LocalDate.parse(texto,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"))
+            .atStartOfDay()
+            .toInstant(ZoneOffset.ofHours(-5))
+            .toEpochMilli();
+      } else {
+        if (texto.length() == 8) {
+          return LocalDate.parse(texto
+                  .replaceAll("\\s+", "")
+                  .replaceAll("-", "")
+                  .replaceAll("\\+", "")
+                  .replaceAll("\\(", "/")
+                  .replaceAll("//", "/")
+                  .replaceAll("02/15/19", "15/02/19")
+                  .replaceAll("20/0708", "20/07/18")
+                  .replaceAll("09/13/09", "09/12/09")
+                  .replaceAll("190220", "19/02/20")
+                  .replaceAll("180220", "18/02/20")
+              ,
+              DateTimeFormatter.ofPattern("dd/MM/yy"))
+              .atStartOfDay()
+              .toInstant(ZoneOffset.ofHours(-5))
+              .toEpochMilli();
+        } else if (texto.length() == 6) {
+          return LocalDate.parse(texto,
+              DateTimeFormatter.ofPattern("ddMMyy"))
+              .atStartOfDay()
+              .toInstant(ZoneOffset.ofHours(-5))
+              .toEpochMilli();
+        } else {
+          if (texto.length() > 10 || texto.length() < 6 || texto.equals("Sinfecha")) {
+            return null;
+          } else {
+            try {
+              return LocalDate.parse(texto
+                      .replaceAll("O14/01/21", "14/01/21")
+                      .replaceAll("\\s+", "")
+                      .replaceAll("-", "")
+                      .replaceAll("\\+", "")
+                      .replaceAll("//", "/")
+                      .replaceAll("011", "11")
+                      .replaceAll("119", "19")
+                      .replaceAll("240", "24")
+                      .replaceAll("178", "18")
+                      .replaceAll("187", "18")
+                      .replaceAll("182", "18")
+                      .replaceAll("0520", "05/20")
+                      .replaceAll("5/04/19", "05/04/19")
+                      .replaceAll("0719", "07/19")
+                      .replaceAll("0617", "06/17")
+                      .replaceAll("1710", "17/10")
+                      .replaceAll("1018", "10/18")
+                      .replaceAll("0208", "02/08")
+                      .replaceAll("1907", "19/07")
+                      .replaceAll("23/03/18/", "23/03/18")
+                      .replaceAll("02/15/19", "15/02/19")
+                      .replaceAll("21/5/20", "21/05/20")
+                      .replaceAll("20/0708", "20/07/18")
+                      .replaceAll("21/012/06", "21/12/06")
+                      .replaceAll("12/142/06", "12/12/06")
+                      .replaceAll("15/0307", "15/03/07")
+                      .replaceAll("21/1206", "21/12/06")
+                      .replaceAll("029/06/06", "29/06/06")
+                      .replaceAll("30/1106", "30/11/06")
+                      .replaceAll("014/01/21", "14/01/21")
+                      .replaceAll("06/1206", "06/12/06")
+                      .replaceAll("22/05/8", "22/05/08")
+                      .replaceAll("08/05/8", "08/05/08")
+                      .replaceAll(", 22/09/09", "22/09/09")
+                      .replaceAll(", ", "")
+                      .replaceAll(",", "")
+                      .replaceAll("\\(", "/")
+                  ,
+                  DateTimeFormatter.ofPattern("dd/MM/yy"))
+                  .atStartOfDay()
+                  .toInstant(ZoneOffset.ofHours(-5))
+                  .toEpochMilli();
+            } catch (DateTimeParseException e) {
+              return null;
+            }
+          }
+        }
+      }
+  }
+}
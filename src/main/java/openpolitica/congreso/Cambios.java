@@ -0,0 +1,60 @@
+package openpolitica.congreso;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import openpolitica.congreso.leyes.ProyectoLey;
+
+/**
+ * Diferencias entre dos versiones de un periodo: numero_unico de los proyectos agregados,
+ * eliminados y modificados.
+ */
+class Cambios {
+
+  final Set<String> agregados = new HashSet<>();
+  final Set<String> eliminados = new HashSet<>();
+  final Set<String> modificados = new HashSet<>();
+  // Huellas.identificador del archivo contra el que se compararon; null si no habia archivo
+  byte[] anterior;
+
+  boolean isEmpty() {
+    return agregados.isEmpty() && eliminados.isEmpty() && modificados.isEmpty();
+  }
+
+  @Override public String toString() {
+    return "agregados=%d, eliminados=%d, modificados=%d"
+        .formatted(agregados.size(), eliminados.size(), modificados.size());
+  }
+
+  /**
+   * Recorre ambas versiones a la vez, las dos ordenadas por periodo_numero, sin cargarlas en
+   * memoria; solo se guardan las claves que cambian.
+   */
+  static Cambios comparar(Iterator<ProyectoLey> actuales, Iterator<ProyectoLey> nuevos) {
+    var cambios = new Cambios();
+    var actual = actuales.hasNext() ? actuales.next() : null;
+    var nuevo = nuevos.hasNext() ? nuevos.next() : null;
+    while (actual != null || nuevo != null) {
+      var orden = actual == null ? 1 :
+          nuevo == null ? -1 :
+              actual.getPeriodoNumero().compareTo(nuevo.getPeriodoNumero());
+      if (orden < 0) {
+        cambios.eliminados.add(actual.getNumeroUnico());
+        actual = actuales.hasNext() ? actuales.next() : null;
+      } else if (orden > 0) {
+        cambios.agregados.add(nuevo.getNumeroUnico());
+        nuevo = nuevos.hasNext() ? nuevos.next() : null;
+      } else {
+        if (!actual.getNumeroUnico().equals(nuevo.getNumeroUnico())) {
+          cambios.eliminados.add(actual.getNumeroUnico());
+          cambios.agregados.add(nuevo.getNumeroUnico());
+        } else if (!actual.equals(nuevo)) {
+          cambios.modificados.add(nuevo.getNumeroUnico());
+        }
+        actual = actuales.hasNext() ? actuales.next() : null;
+        nuevo = nuevos.hasNext() ? nuevos.next() : null;
+      }
+    }
+    return cambios;
+  }
+}
@@ -0,0 +1,233 @@
+package openpolitica.congreso;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import openpolitica.congreso.leyes.ProyectoLey;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Avance durable de una extraccion: los proyectos de cada lote completo se agregan a un archivo
+ * Avro temporal (spill) y luego se registra el siguiente indice ({@code Start=}) junto con la
+ * posicion del archivo en ese punto. Al reanudar, el spill se recorta a la ultima posicion
+ * registrada y la extraccion continua desde ese indice.
+ *
+ * <p>Cada lote es una secuencia ordenada por {@code periodo_numero}, de modo que el resultado
+ * final se obtiene uniendo los lotes sin cargar el periodo completo en memoria.
+ */
+class Checkpoint implements AutoCloseable {
+
+  static final Logger LOG = LoggerFactory.getLogger(Checkpoint.class);
+
+  // un lote registrado: indice siguiente, posicion del spill al terminarlo y numero de registros
+  static class Lote {
+    final int siguienteIndice;
+    final long posicion;
+    final int registros;
+
+    Lote(int siguienteIndice, long posicion, int registros) {
+      this.siguienteIndice = siguienteIndice;
+      this.posicion = posicion;
+      this.registros = registros;
+    }
+
+    @Override public String toString() {
+      return siguienteIndice + " " + posicion + " " + registros;
+    }
+
+    static Lote parse(String line) {
+      var values = line.trim().split(" ");
+      return new Lote(
+          Integer.parseInt(values[0]),
+          Long.parseLong(values[1]),
+          Integer.parseInt(values[2]));
+    }
+  }
+
+  final Path spill;
+  final Path estado;
+  final List<Lote> lotes;
+  final DataFileWriter<ProyectoLey> writer;
+  // DataFileWriter.appendTo cuenta posiciones desde donde empieza a escribir, no desde el inicio
+  final long base;
+
+  private Checkpoint(
+      Path spill,
+      Path estado,
+      List<Lote> lotes,
+      DataFileWriter<ProyectoLey> writer,
+      long base
+  ) {
+    this.spill = spill;
+    this.estado = estado;
+    this.lotes = lotes;
+    this.writer = writer;
+    this.base = base;
+  }
+
+  static Path spillPath(Path output) {
+    return output.resolveSibling(output.getFileName() + ".spill");
+  }
+
+  static Path estadoPath(Path output) {
+    return output.resolveSibling(output.getFileName() + ".checkpoint");
+  }
+
+  // resume=false descarta cualquier avance previo
+  static Checkpoint open(Path output, boolean resume) throws IOException {
+    var spill = spillPath(output);
+    var estado = estadoPath(output);
+    var writer = new DataFileWriter<>(new SpecificDatumWriter<>(ProyectoLey.class));
+    writer.setCodec(CodecFactory.zstandardCodec(CodecFactory.DEFAULT_ZSTANDARD_LEVEL));
+
+    if (resume && Files.isRegularFile(estado) && Files.isRegularFile(spill)) {
+      var lotes = new ArrayList<Lote>();
+      for (var line : Files.readAllLines(estado)) {
+        if (!line.isBlank()) lotes.add(Lote.parse(line));
+      }
+      var ultimo = lotes.get(lotes.size() - 1);
+      // lo escrito despues del ultimo lote registrado se vuelve a extraer
+      try (var channel = FileChannel.open(spill, StandardOpenOption.WRITE)) {
+        channel.truncate(ultimo.posicion);
+      }
+      writer.appendTo(spill.toFile());
+      LOG.info("Reanudando extraccion desde indice {}, {} lotes previos",
+          ultimo.siguienteIndice, lotes.size() - 1);
+      return new Checkpoint(spill, estado, lotes, writer, ultimo.posicion);
+    }
+
+    delete(output);
+    writer.create(ProyectoLey.getClassSchema(), spill.toFile());
+    var lotes = new ArrayList<Lote>();
+    lotes.add(new Lote(1, writer.sync(), 0));
+    // el lote 0 apunta al final de la cabecera; debe estar en disco antes de registrarlo
+    writer.fSync();
+    var checkpoint = new Checkpoint(spill, estado, lotes, writer, 0);
+    checkpoint.writeEstado();
+    return checkpoint;
+  }
+
+  int siguienteIndice() {
+    return lotes.get(lotes.size() - 1).siguienteIndice;
+  }
+
+  void append(int siguienteIndice, List<ProyectoLey> proyectos) throws IOException {
+    var ordenados = new ArrayList<>(proyectos);
+    ordenados.sort(Comparator.comparing(ProyectoLey::getPeriodoNumero));
+    for (var proyecto : ordenados) writer.append(proyecto);
+    var posicion = base + writer.sync();
+    writer.fSync();
+    lotes.add(new Lote(siguienteIndice, posicion, proyectos.size()));
+    writeEstado();
+  }
+
+  private void writeEstado() throws IOException {
+    var tmp = estado.resolveSibling(estado.getFileName() + ".tmp");
+    var lines = new StringBuilder();
+    for (var lote : lotes) lines.append(lote).append('\n');
+    Files.writeString(tmp, lines, StandardCharsets.UTF_8);
+    Files.move(tmp, estado, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  int registros() {
+    return lotes.stream().mapToInt(l -> l.registros).sum();
+  }
+
+  // cada lote se escribe ordenado por periodo_numero; aqui se unen en un solo recorrido ordenado
+  Merge merge() throws IOException {
+    var cursores = new ArrayList<Cursor>();
+    for (int i = 1; i < lotes.size(); i++) {
+      if (lotes.get(i).registros == 0) continue;
+      var reader = new DataFileReader<>(spill.toFile(), Simbolos.lector());
+      reader.seek(lotes.get(i - 1).posicion);
+      cursores.add(new Cursor(i, reader, lotes.get(i).registros));
+    }
+    return new Merge(cursores);
+  }
+
+  static class Cursor {
+    final int lote;
+    final DataFileReader<ProyectoLey> reader;
+    int restantes;
+    ProyectoLey actual;
+
+    Cursor(int lote, DataFileReader<ProyectoLey> reader, int registros) {
+      this.lote = lote;
+      this.reader = reader;
+      this.restantes = registros;
+    }
+
+    boolean avanzar() {
+      if (restantes == 0) return false;
+      restantes--;
+      actual = reader.next();
+      return true;
+    }
+  }
+
+  static class Merge implements Iterator<ProyectoLey>, AutoCloseable {
+    static final Comparator<Cursor> ORDEN = Comparator
+        .comparing((Cursor c) -> c.actual.getPeriodoNumero())
+        .thenComparingInt(c -> c.lote);
+
+    final List<Cursor> cursores;
+    final PriorityQueue<Cursor> cola = new PriorityQueue<>(ORDEN);
+
+    Merge(List<Cursor> cursores) {
+      this.cursores = cursores;
+      for (var cursor : cursores) {
+        if (cursor.avanzar()) cola.add(cursor);
+      }
+    }
+
+    @Override public boolean hasNext() {
+      return !cola.isEmpty();
+    }
+
+    @Override public ProyectoLey next() {
+      if (cola.isEmpty()) throw new NoSuchElementException();
+      var proyecto = tomar();
+      // si el indice se desplaza entre paginas un proyecto puede repetirse; queda el mas reciente
+      while (!cola.isEmpty()
+          && cola.peek().actual.getPeriodoNumero().equals(proyecto.getPeriodoNumero())) {
+        proyecto = tomar();
+      }
+      return proyecto;
+    }
+
+    private ProyectoLey tomar() {
+      var cursor = cola.poll();
+      var proyecto = cursor.actual;
+      if (cursor.avanzar()) cola.add(cursor);
+      return proyecto;
+    }
+
+    @Override public void close() throws IOException {
+      for (var cursor : cursores) cursor.reader.close();
+    }
+  }
+
+  @Override public void close() throws IOException {
+    writer.close();
+  }
+
+  static void delete(Path output) throws IOException {
+    Files.deleteIfExists(spillPath(output));
+    Files.deleteIfExists(estadoPath(output));
+  }
+}
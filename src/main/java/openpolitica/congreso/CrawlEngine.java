@@ -0,0 +1,109 @@
+package openpolitica.congreso;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ejecuta las tareas de importacion (peticiones HTTP bloqueantes) con un limite explicito de
+ * concurrencia, independiente del numero de procesadores.
+ */
+class CrawlEngine implements AutoCloseable {
+
+  static final Logger LOG = LoggerFactory.getLogger(CrawlEngine.class);
+  static final int DEFAULT_CONCURRENCY = Integer.getInteger("crawl.concurrency", 32);
+
+  final int concurrency;
+  final ExecutorService executor;
+  // limite con hilos virtuales, que no se agrupan en un pool; null con el pool fijo
+  final Semaphore permisos;
+  final List<Thread> background = new CopyOnWriteArrayList<>();
+
+  CrawlEngine(int concurrency) {
+    if (concurrency < 1) throw new IllegalArgumentException("concurrency < 1");
+    this.concurrency = concurrency;
+    var virtual = virtualThreadPerTaskExecutor();
+    if (virtual != null) {
+      this.executor = virtual;
+      this.permisos = new Semaphore(concurrency);
+    } else {
+      this.executor = Executors.newFixedThreadPool(concurrency, platformThreadFactory());
+      this.permisos = null;
+    }
+  }
+
+  <T> CompletableFuture<T> submit(Supplier<T> task) {
+    if (permisos == null) return CompletableFuture.supplyAsync(task, executor);
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        permisos.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CompletionException(e);
+      }
+      try {
+        return task.get();
+      } finally {
+        permisos.release();
+      }
+    }, executor);
+  }
+
+  // tareas de larga duracion (p.ej. el indice) en su propio hilo, fuera del limite de concurrencia
+  CompletableFuture<Void> background(String name, Runnable task) {
+    var result = new CompletableFuture<Void>();
+    var thread = new Thread(() -> {
+      try {
+        task.run();
+        result.complete(null);
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    }, name);
+    thread.setDaemon(true);
+    background.add(thread);
+    thread.start();
+    return result;
+  }
+
+  @Override public void close() {
+    background.forEach(Thread::interrupt);
+    executor.shutdownNow();
+  }
+
+  // un hilo virtual por tarea cuando el runtime los soporta (Java 21+); null si no
+  static ExecutorService virtualThreadPerTaskExecutor() {
+    try {
+      var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      var builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, "crawl-", 1L);
+      var factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      var executor = (ExecutorService) Executors.class
+          .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+          .invoke(null, factory);
+      LOG.info("Usando hilos virtuales");
+      return executor;
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  static ThreadFactory platformThreadFactory() {
+    var counter = new AtomicInteger();
+    return r -> {
+      var thread = new Thread(r, "crawl-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
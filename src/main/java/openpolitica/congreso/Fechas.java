@@ -0,0 +1,250 @@
+package openpolitica.congreso;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fechas del indice, del seguimiento y de los documentos del expediente: correcciones de fechas
+ * mal escritas y conversion a epoch millis (medianoche en UTC-5).
+ *
+ * <p>Las correcciones se aplican en orden, como reemplazos literales precompilados: una
+ * correccion puede depender de las anteriores. Las fechas bien formadas se convierten sin
+ * {@link DateTimeFormatter}; cualquier otro texto pasa por el formateador, que acepta o rechaza
+ * exactamente lo mismo que antes.
+ */
+final class Fechas {
+
+  static final Logger LOG = LoggerFactory.getLogger(Fechas.class);
+
+  static final long MILLIS_DIA = 86_400_000L;
+  // medianoche en UTC-5 son las 05:00 UTC
+  static final long OFFSET_MILLIS = 5 * 3_600_000L;
+  static final long DIAS_0000_A_1970 = 719_528L;
+  // documento sin fecha; ninguna fecha valida llega a este valor
+  static final long SIN_FECHA = Long.MIN_VALUE;
+
+  static final DateTimeFormatter MM_DD_YYYY = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  static final DateTimeFormatter DD_MM_YYYY = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+  static final DateTimeFormatter DD_MM_YY = DateTimeFormatter.ofPattern("dd/MM/yy");
+  static final DateTimeFormatter DDMMYY = DateTimeFormatter.ofPattern("ddMMyy");
+
+  static final List<UnaryOperator<String>> CORRECCIONES_SEGUIMIENTO = List.of(
+      reemplazo("58/08/2018", "08/08/2018"),
+      reemplazo("59/02/2017", "06/02/2017"),
+      reemplazo("60/02/2017", "06/02/2017"),
+      reemplazo("61/02/2017", "06/02/2017"),
+      reemplazo("62/02/2017", "06/02/2017"),
+      // 2011
+      reemplazo("35/07/2014", "25/07/2014")
+  );
+
+  static final List<UnaryOperator<String>> CORRECCIONES_DD_MM_YY = List.of(
+      Fechas::sinEspacios,
+      reemplazo("-", ""),
+      reemplazo("+", ""),
+      reemplazo("(", "/"),
+      reemplazo("//", "/"),
+      reemplazo("02/15/19", "15/02/19"),
+      reemplazo("20/0708", "20/07/18"),
+      reemplazo("09/13/09", "09/12/09"),
+      reemplazo("190220", "19/02/20"),
+      reemplazo("180220", "18/02/20")
+  );
+
+  static final List<UnaryOperator<String>> CORRECCIONES_OTRAS = List.of(
+      reemplazo("O14/01/21", "14/01/21"),
+      Fechas::sinEspacios,
+      reemplazo("-", ""),
+      reemplazo("+", ""),
+      reemplazo("//", "/"),
+      reemplazo("011", "11"),
+      reemplazo("119", "19"),
+      reemplazo("240", "24"),
+      reemplazo("178", "18"),
+      reemplazo("187", "18"),
+      reemplazo("182", "18"),
+      reemplazo("0520", "05/20"),
+      reemplazo("5/04/19", "05/04/19"),
+      reemplazo("0719", "07/19"),
+      reemplazo("0617", "06/17"),
+      reemplazo("1710", "17/10"),
+      reemplazo("1018", "10/18"),
+      reemplazo("0208", "02/08"),
+      reemplazo("1907", "19/07"),
+      reemplazo("23/03/18/", "23/03/18"),
+      reemplazo("02/15/19", "15/02/19"),
+      reemplazo("21/5/20", "21/05/20"),
+      reemplazo("20/0708", "20/07/18"),
+      reemplazo("21/012/06", "21/12/06"),
+      reemplazo("12/142/06", "12/12/06"),
+      reemplazo("15/0307", "15/03/07"),
+      reemplazo("21/1206", "21/12/06"),
+      reemplazo("029/06/06", "29/06/06"),
+      reemplazo("30/1106", "30/11/06"),
+      reemplazo("014/01/21", "14/01/21"),
+      reemplazo("06/1206", "06/12/06"),
+      reemplazo("22/05/8", "22/05/08"),
+      reemplazo("08/05/8", "08/05/08"),
+      reemplazo(", 22/09/09", "22/09/09"),
+      reemplazo(", ", ""),
+      reemplazo(",", ""),
+      reemplazo("(", "/")
+  );
+
+  private Fechas() {
+  }
+
+  /** Fecha de presentacion o de actualizacion en el indice de proyectos: MM/dd/yyyy. */
+  static long proyecto(String texto) {
+    return MMddyyyy(texto);
+  }
+
+  /** Fecha de un evento del seguimiento: dd/MM/yyyy, con algunas fechas corregidas. */
+  static long seguimiento(String texto) {
+    return ddMMyyyy(corregir(texto, CORRECCIONES_SEGUIMIENTO));
+  }
+
+  /**
+   * Fecha de un documento del expediente segun la longitud del texto: dd/MM/yyyy, dd/MM/yy o
+   * ddMMyy. Las dos primeras y ddMMyy fallan con {@link DateTimeParseException} si el texto no es
+   * valido; el resto se corrige y si aun no es una fecha queda {@link #SIN_FECHA}.
+   */
+  static long documento(String texto) {
+    if (texto.isBlank() || texto.equals("Sinfecha")) return SIN_FECHA;
+    var longitud = texto.length();
+    if (longitud == 10 && !texto.startsWith(", ")) return ddMMyyyy(texto);
+    if (longitud == 8) return ddMMyy(corregir(texto, CORRECCIONES_DD_MM_YY));
+    if (longitud == 6) return ddMMyyCompacto(texto);
+    if (longitud > 10 || longitud < 6) return SIN_FECHA;
+    var corregido = corregir(texto, CORRECCIONES_OTRAS);
+    try {
+      return ddMMyy(corregido);
+    } catch (DateTimeParseException e) {
+      LOG.warn("Fecha invalida: {} ({})", texto, corregido);
+      return SIN_FECHA;
+    }
+  }
+
+  static String corregir(String texto, List<UnaryOperator<String>> correcciones) {
+    for (var correccion : correcciones) texto = correccion.apply(texto);
+    return texto;
+  }
+
+  // String.replace no usa expresiones regulares y devuelve el mismo texto si no hay coincidencia
+  static UnaryOperator<String> reemplazo(String buscado, String reemplazo) {
+    return texto -> texto.replace(buscado, reemplazo);
+  }
+
+  // equivalente a replaceAll("\\s+", "")
+  static String sinEspacios(String texto) {
+    for (int i = 0; i < texto.length(); i++) {
+      if (espacio(texto.charAt(i))) {
+        var sb = new StringBuilder(texto.length());
+        for (int j = 0; j < texto.length(); j++) {
+          var c = texto.charAt(j);
+          if (!espacio(c)) sb.append(c);
+        }
+        return sb.toString();
+      }
+    }
+    return texto;
+  }
+
+  private static boolean espacio(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  static long ddMMyyyy(String texto) {
+    var millis = millis(texto, 0, 3);
+    return millis != Long.MIN_VALUE ? millis : millis(LocalDate.parse(texto, DD_MM_YYYY));
+  }
+
+  static long MMddyyyy(String texto) {
+    var millis = millis(texto, 3, 0);
+    return millis != Long.MIN_VALUE ? millis : millis(LocalDate.parse(texto, MM_DD_YYYY));
+  }
+
+  // ??/??/yyyy con el dia y el mes en las posiciones dadas, o Long.MIN_VALUE
+  private static long millis(String texto, int posDia, int posMes) {
+    if (texto.length() != 10 || texto.charAt(2) != '/' || texto.charAt(5) != '/') {
+      return Long.MIN_VALUE;
+    }
+    var siglo = digitos(texto, 6);
+    var anio = digitos(texto, 8);
+    if (siglo < 0 || anio < 0 || siglo * 100 + anio == 0) return Long.MIN_VALUE;
+    return millis(siglo * 100 + anio, digitos(texto, posMes), digitos(texto, posDia));
+  }
+
+  static long ddMMyy(String texto) {
+    if (texto.length() == 8 && texto.charAt(2) == '/' && texto.charAt(5) == '/') {
+      var anio = digitos(texto, 6);
+      if (anio >= 0) {
+        var millis = millis(2000 + anio, digitos(texto, 3), digitos(texto, 0));
+        if (millis != Long.MIN_VALUE) return millis;
+      }
+    }
+    return millis(LocalDate.parse(texto, DD_MM_YY));
+  }
+
+  static long ddMMyyCompacto(String texto) {
+    if (texto.length() == 6) {
+      var anio = digitos(texto, 4);
+      if (anio >= 0) {
+        var millis = millis(2000 + anio, digitos(texto, 2), digitos(texto, 0));
+        if (millis != Long.MIN_VALUE) return millis;
+      }
+    }
+    return millis(LocalDate.parse(texto, DDMMYY));
+  }
+
+  // dos digitos ASCII desde i, o -1
+  static int digitos(String texto, int i) {
+    var a = texto.charAt(i) - '0';
+    var b = texto.charAt(i + 1) - '0';
+    if (a < 0 || a > 9 || b < 0 || b > 9) return -1;
+    return a * 10 + b;
+  }
+
+  /**
+   * Long.MIN_VALUE si el mes o el dia estan fuera de rango. Como el formateador (ResolverStyle
+   * SMART), un dia valido mayor que el ultimo del mes se ajusta al ultimo: 31/04 es 30/04.
+   */
+  static long millis(int anio, int mes, int dia) {
+    if (mes < 1 || mes > 12 || dia < 1 || dia > 31) return Long.MIN_VALUE;
+    return epochDay(anio, mes, Math.min(dia, diasDelMes(anio, mes))) * MILLIS_DIA + OFFSET_MILLIS;
+  }
+
+  static long millis(LocalDate fecha) {
+    return fecha.toEpochDay() * MILLIS_DIA + OFFSET_MILLIS;
+  }
+
+  static boolean bisiesto(int anio) {
+    return (anio & 3) == 0 && (anio % 100 != 0 || anio % 400 == 0);
+  }
+
+  static int diasDelMes(int anio, int mes) {
+    return switch (mes) {
+      case 2 -> bisiesto(anio) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+
+  // mismo calculo que LocalDate.toEpochDay para anios positivos
+  static long epochDay(int anio, int mes, int dia) {
+    long total = 365L * anio;
+    total += (anio + 3) / 4 - (anio + 99) / 100 + (anio + 399) / 400;
+    total += (367 * mes - 362) / 12;
+    total += dia - 1;
+    if (mes > 2) {
+      total--;
+      if (!bisiesto(anio)) total--;
+    }
+    return total - DIAS_0000_A_1970;
+  }
+}
@@ -0,0 +1,249 @@
+package openpolitica.congreso;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache en disco de las paginas descargadas, por URL. Guarda los validadores (ETag,
+ * Last-Modified y hash del contenido) para revalidar con peticiones condicionales, y limita su
+ * tamaño descartando las entradas usadas hace mas tiempo.
+ */
+class HttpCache {
+
+  static final Logger LOG = LoggerFactory.getLogger(HttpCache.class);
+
+  static class Entrada {
+    final byte[] body;
+    final String charset;
+    final String etag;
+    final String lastModified;
+    final String hash;
+
+    Entrada(byte[] body, String charset, String etag, String lastModified, String hash) {
+      this.body = body;
+      this.charset = charset;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.hash = hash;
+    }
+  }
+
+  final Path dir;
+  final long maxBytes;
+  final boolean revalidate;
+
+  // lectura y escritura de los archivos de una misma URL no se intercalan
+  final Object[] bloqueos = new Object[64];
+
+  // orden de acceso: la primera entrada es la menos usada recientemente
+  final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+  long totalBytes = 0;
+
+  HttpCache(Path dir, long maxBytes, boolean revalidate) throws IOException {
+    this.dir = dir;
+    this.maxBytes = maxBytes;
+    this.revalidate = revalidate;
+    for (int i = 0; i < bloqueos.length; i++) bloqueos[i] = new Object();
+    Files.createDirectories(dir);
+    try (var files = Files.list(dir)) {
+      for (var tmp : files.filter(f -> f.toString().endsWith(".tmp")).collect(Collectors.toList())) {
+        Files.deleteIfExists(tmp);
+      }
+    }
+    try (var files = Files.list(dir)) {
+      var bodies = files
+          .filter(f -> f.getFileName().toString().endsWith(".body"))
+          .sorted(Comparator.comparing(HttpCache::lastModified))
+          .collect(Collectors.toList());
+      for (var body : bodies) {
+        var key = body.getFileName().toString().replace(".body", "");
+        var meta = dir.resolve(key + ".meta");
+        if (!Files.isRegularFile(meta)) {
+          delete(key);
+          continue;
+        }
+        var size = Files.size(body) + Files.size(meta);
+        sizes.put(key, size);
+        totalBytes += size;
+      }
+    }
+    borrar(evict());
+    LOG.info("Cache HTTP en {}: {} entradas, {} bytes", dir, sizes.size(), totalBytes);
+  }
+
+  // null si la cache no esta configurada (-Dcrawl.cache.dir)
+  static HttpCache fromSystemProperties() {
+    var dir = System.getProperty("crawl.cache.dir");
+    if (dir == null || dir.isBlank()) return null;
+    try {
+      return new HttpCache(
+          Path.of(dir),
+          Long.getLong("crawl.cache.maxSize", 1024) * 1024 * 1024,
+          Boolean.parseBoolean(System.getProperty("crawl.cache.revalidate", "true")));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  Entrada get(String url) {
+    var key = key(url);
+    // con el bloqueo de la URL un put o un descarte concurrente no puede dejar cuerpo y metadatos
+    // desalineados; si aun asi no coinciden, la entrada quedo asi en disco y se descarta
+    synchronized (bloqueo(key)) {
+      synchronized (this) {
+        if (sizes.get(key) == null) return null;
+      }
+      try {
+        var meta = new Properties();
+        try (var in = Files.newBufferedReader(dir.resolve(key + ".meta"))) {
+          meta.load(in);
+        }
+        var path = dir.resolve(key + ".body");
+        var body = Files.readAllBytes(path);
+        if (!hash(body).equals(meta.getProperty("hash"))) {
+          LOG.warn("Entrada de cache inconsistente para {}, se descarta", url);
+          remove(key);
+          return null;
+        }
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        return new Entrada(
+            body,
+            meta.getProperty("charset"),
+            meta.getProperty("etag"),
+            meta.getProperty("lastModified"),
+            meta.getProperty("hash"));
+      } catch (IOException e) {
+        LOG.warn("Entrada de cache ilegible para {}, se descarta", url, e);
+        remove(key);
+        return null;
+      }
+    }
+  }
+
+  void put(String url, byte[] body, String charset, String etag, String lastModified)
+      throws IOException {
+    var key = key(url);
+    var meta = new Properties();
+    meta.setProperty("url", url);
+    meta.setProperty("hash", hash(body));
+    if (charset != null) meta.setProperty("charset", charset);
+    if (etag != null) meta.setProperty("etag", etag);
+    if (lastModified != null) meta.setProperty("lastModified", lastModified);
+
+    var metaPath = dir.resolve(key + ".meta");
+    var bodyPath = dir.resolve(key + ".body");
+    var metaTmp = Files.createTempFile(dir, key, ".tmp");
+    var bodyTmp = Files.createTempFile(dir, key, ".tmp");
+    try (var out = Files.newBufferedWriter(metaTmp, StandardCharsets.UTF_8)) {
+      meta.store(out, null);
+    }
+    Files.write(bodyTmp, body);
+    List<String> descartadas;
+    // los metadatos van al final: un corte a medio camino deja el hash anterior y se detecta
+    synchronized (bloqueo(key)) {
+      Files.move(bodyTmp, bodyPath, StandardCopyOption.ATOMIC_MOVE);
+      Files.move(metaTmp, metaPath, StandardCopyOption.ATOMIC_MOVE);
+      var size = Files.size(bodyPath) + Files.size(metaPath);
+      synchronized (this) {
+        var previous = sizes.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        descartadas = evict();
+      }
+    }
+    // fuera de ambos bloqueos: borrar toma los de otras URLs
+    borrar(descartadas);
+  }
+
+  // con el monitor de la cache: saca del indice las entradas a descartar, sin tocar sus archivos
+  private List<String> evict() {
+    var descartadas = new ArrayList<String>();
+    var it = sizes.entrySet().iterator();
+    while (totalBytes > maxBytes && it.hasNext()) {
+      var eldest = it.next();
+      it.remove();
+      totalBytes -= eldest.getValue();
+      descartadas.add(eldest.getKey());
+    }
+    return descartadas;
+  }
+
+  // con el bloqueo de cada URL, como get, put e invalidar; si un put la volvio a guardar se deja
+  private void borrar(List<String> keys) {
+    for (var key : keys) {
+      synchronized (bloqueo(key)) {
+        synchronized (this) {
+          if (sizes.containsKey(key)) continue;
+        }
+        delete(key);
+      }
+    }
+  }
+
+  void invalidar(String url) {
+    var key = key(url);
+    synchronized (bloqueo(key)) {
+      remove(key);
+    }
+  }
+
+  private Object bloqueo(String key) {
+    return bloqueos[Math.floorMod(key.hashCode(), bloqueos.length)];
+  }
+
+  private synchronized void remove(String key) {
+    var size = sizes.remove(key);
+    if (size != null) totalBytes -= size;
+    delete(key);
+  }
+
+  private void delete(String key) {
+    try {
+      Files.deleteIfExists(dir.resolve(key + ".body"));
+      Files.deleteIfExists(dir.resolve(key + ".meta"));
+    } catch (IOException e) {
+      LOG.warn("No se pudo eliminar la entrada de cache {}", key, e);
+    }
+  }
+
+  static String key(String url) {
+    return sha256(url.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String hash(byte[] body) {
+    return sha256(body);
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      var hex = new StringBuilder(digest.length * 2);
+      for (var b : digest) hex.append(String.format("%02x", b));
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static FileTime lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package openpolitica.congreso;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+ * Cliente HTTP compartido: reutiliza conexiones persistentes, negocia compresion y entrega los
+ * bytes de la respuesta a Jsoup. Con -Dcrawl.cache.dir las respuestas se guardan en disco y se
+ * revalidan con peticiones condicionales.
+ */
+class HttpFetcher {
+
+  static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_12_6) "
+      + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/53.0.2785.143 Safari/537.36";
+  static final Duration DEFAULT_CONNECT_TIMEOUT =
+      Duration.ofSeconds(Long.getLong("crawl.http.connectTimeout", 30));
+  static final Duration DEFAULT_REQUEST_TIMEOUT =
+      Duration.ofSeconds(Long.getLong("crawl.http.requestTimeout", 60));
+
+  final HttpClient client;
+  final Duration requestTimeout;
+  final HttpCache cache;
+
+  HttpFetcher() {
+    this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, HttpCache.fromSystemProperties());
+  }
+
+  HttpFetcher(Duration connectTimeout, Duration requestTimeout, HttpCache cache) {
+    this.requestTimeout = requestTimeout;
+    this.cache = cache;
+    // HTTP/1.1 con keep-alive: el cliente mantiene un pool de conexiones por host
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(connectTimeout)
+        .build();
+  }
+
+  Document get(String url) throws IOException {
+    return get(url, false);
+  }
+
+  /**
+   * Con {@code revalidar} la peticion condicional se hace aunque -Dcrawl.cache.revalidate=false:
+   * las paginas del indice son las que dicen que proyectos cambiaron y no pueden leerse viejas.
+   */
+  Document get(String url, boolean revalidar) throws IOException {
+    var cached = cache == null ? null : cache.get(url);
+    if (cached != null && !revalidar && !cache.revalidate) return parse(cached, url);
+
+    var response = send(url, cached);
+    if (response.statusCode() == 304 && cached != null) return parse(cached, url);
+
+    var body = decode(response);
+    var charset = charset(response);
+    var etag = response.headers().firstValue("ETag").orElse(null);
+    var lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+    // sin validadores el servidor responde siempre completo; el hash evita reescribir lo mismo
+    if (cache != null && (cached == null
+        || !HttpCache.hash(body).equals(cached.hash)
+        || !Objects.equals(etag, cached.etag)
+        || !Objects.equals(lastModified, cached.lastModified))) {
+      cache.put(url, body, charset, etag, lastModified);
+    }
+    return Jsoup.parse(new ByteArrayInputStream(body), charset, url);
+  }
+
+  // la pagina guardada no se pudo procesar; el siguiente intento la vuelve a descargar
+  void descartar(String url) {
+    if (cache != null) cache.invalidar(url);
+  }
+
+  static Document parse(HttpCache.Entrada cached, String url) throws IOException {
+    return Jsoup.parse(new ByteArrayInputStream(cached.body), cached.charset, url);
+  }
+
+  HttpResponse<byte[]> send(String url, HttpCache.Entrada cached) throws IOException {
+    var builder = HttpRequest.newBuilder(URI.create(url))
+        .timeout(requestTimeout)
+        .header("User-Agent", USER_AGENT)
+        .header("Accept-Encoding", "gzip, deflate")
+        .GET();
+    if (cached != null && cached.etag != null) builder.header("If-None-Match", cached.etag);
+    if (cached != null && cached.lastModified != null) {
+      builder.header("If-Modified-Since", cached.lastModified);
+    }
+    try {
+      var response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+      if (response.statusCode() >= 400) {
+        throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+      }
+      return response;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Peticion interrumpida: " + url);
+    }
+  }
+
+  static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+    var encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+    InputStream in;
+    switch (encoding.toLowerCase()) {
+      case "gzip", "x-gzip" -> in = new GZIPInputStream(new ByteArrayInputStream(response.body()));
+      case "deflate" -> in = new InflaterInputStream(new ByteArrayInputStream(response.body()));
+      default -> {
+        return response.body();
+      }
+    }
+    try (in) {
+      return in.readAllBytes();
+    }
+  }
+
+  // null deja que Jsoup detecte la codificacion desde el meta de la pagina
+  static String charset(HttpResponse<byte[]> response) {
+    var contentType = response.headers().firstValue("Content-Type").orElse("");
+    var i = contentType.toLowerCase().indexOf("charset=");
+    if (i < 0) return null;
+    var charset = contentType.substring(i + "charset=".length()).trim();
+    var end = charset.indexOf(';');
+    if (end >= 0) charset = charset.substring(0, end);
+    return charset.replace("\"", "").trim();
+  }
+}
@@ -0,0 +1,170 @@
+package openpolitica.congreso;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import openpolitica.congreso.leyes.ProyectoLey;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.file.DataFileConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Huella de 64 bits de cada proyecto (su codificacion binaria Avro), por periodo_numero como el
+ * resto de la deteccion de cambios, guardada junto al archivo del periodo. Permite saber que
+ * proyectos cambiaron comparando 8 bytes por proyecto, sin decodificar ni comparar registros
+ * anidados.
+ *
+ * <p>La cabecera identifica el archivo Avro del que salieron las huellas; si el archivo fue
+ * reemplazado (otra extraccion, git, una copia) las huellas no se usan.
+ */
+class Huellas {
+
+  static final Logger LOG = LoggerFactory.getLogger(Huellas.class);
+
+  static final int VERSION = 2;
+
+  static class Huella {
+    final String numeroUnico;
+    final long valor;
+
+    Huella(String numeroUnico, long valor) {
+      this.numeroUnico = numeroUnico;
+      this.valor = valor;
+    }
+  }
+
+  final Map<String, Huella> valores;
+
+  Huellas() {
+    this(new HashMap<>());
+  }
+
+  private Huellas(Map<String, Huella> valores) {
+    this.valores = valores;
+  }
+
+  static Path path(Path output) {
+    return output.resolveSibling(output.getFileName() + ".huellas");
+  }
+
+  static long huella(ProyectoLey proyecto) throws IOException {
+    var buffer = proyecto.toByteBuffer();
+    var bytes = Arrays.copyOfRange(
+        buffer.array(),
+        buffer.arrayOffset() + buffer.position(),
+        buffer.arrayOffset() + buffer.limit());
+    return SchemaNormalization.fingerprint64(bytes);
+  }
+
+  void put(ProyectoLey proyecto) throws IOException {
+    valores.put(
+        proyecto.getPeriodoNumero(),
+        new Huella(proyecto.getNumeroUnico(), huella(proyecto)));
+  }
+
+  int size() {
+    return valores.size();
+  }
+
+  // numero_unico de los proyectos que cambiaron, con el mismo criterio que Cambios.comparar
+  Cambios comparar(Huellas nuevas) {
+    var cambios = new Cambios();
+    valores.forEach((numero, huella) -> {
+      var nueva = nuevas.valores.get(numero);
+      if (nueva == null) {
+        cambios.eliminados.add(huella.numeroUnico);
+      } else if (!nueva.numeroUnico.equals(huella.numeroUnico)) {
+        cambios.eliminados.add(huella.numeroUnico);
+        cambios.agregados.add(nueva.numeroUnico);
+      } else if (nueva.valor != huella.valor) {
+        cambios.modificados.add(nueva.numeroUnico);
+      }
+    });
+    nuevas.valores.forEach((numero, nueva) -> {
+      if (!valores.containsKey(numero)) cambios.agregados.add(nueva.numeroUnico);
+    });
+    return cambios;
+  }
+
+  Set<String> numerosUnicos() {
+    var numeros = new HashSet<String>(valores.size() * 2);
+    for (var huella : valores.values()) numeros.add(huella.numeroUnico);
+    return numeros;
+  }
+
+  /**
+   * Largo del archivo y su ultima marca de sincronizacion: la cabecera y cada bloque Avro terminan
+   * en la marca, que se genera al azar para cada archivo.
+   */
+  static byte[] identificador(Path avro) throws IOException {
+    try (var channel = FileChannel.open(avro, StandardOpenOption.READ)) {
+      var size = channel.size();
+      var buffer = ByteBuffer.allocate(Long.BYTES + DataFileConstants.SYNC_SIZE);
+      buffer.putLong(size);
+      var posicion = size - DataFileConstants.SYNC_SIZE;
+      while (buffer.hasRemaining() && posicion >= 0) {
+        var leidos = channel.read(buffer, posicion);
+        if (leidos < 0) break;
+        posicion += leidos;
+      }
+      return buffer.array();
+    }
+  }
+
+  // null si el periodo aun no tiene huellas o si son de otra version del archivo
+  static Huellas load(Path output) throws IOException {
+    var path = path(output);
+    if (!Files.isRegularFile(path)) return null;
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != VERSION) return null;
+      var identificador = new byte[in.readInt()];
+      in.readFully(identificador);
+      if (!Arrays.equals(identificador, identificador(output))) {
+        LOG.info("Huellas de {} no corresponden al archivo actual, se comparan los proyectos",
+            output);
+        return null;
+      }
+      var size = in.readInt();
+      var valores = new HashMap<String, Huella>(size * 2);
+      for (int i = 0; i < size; i++) {
+        var numero = in.readUTF();
+        valores.put(numero, new Huella(in.readUTF(), in.readLong()));
+      }
+      return new Huellas(valores);
+    }
+  }
+
+  // output debe ser el archivo Avro con estos mismos proyectos
+  void save(Path output) throws IOException {
+    var path = path(output);
+    var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    var identificador = identificador(output);
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(VERSION);
+      out.writeInt(identificador.length);
+      out.write(identificador);
+      out.writeInt(valores.size());
+      for (var e : new TreeMap<>(valores).entrySet()) {
+        out.writeUTF(e.getKey());
+        out.writeUTF(e.getValue().numeroUnico);
+        out.writeLong(e.getValue().valor);
+      }
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,90 @@
+package openpolitica.congreso;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import openpolitica.congreso.leyes.ProyectoLey;
+import org.apache.avro.file.DataFileReader;
+
+/**
+ * Lee un archivo Avro decodificando varios tramos a la vez. El archivo se divide en tramos de
+ * bytes; cada tramo contiene los bloques cuya marca de sincronizacion empieza dentro de el, de
+ * modo que cada bloque se lee una sola vez. Los tramos se entregan en el orden del archivo y solo
+ * se adelantan unos pocos, para acotar la memoria.
+ */
+class LecturaParalela implements AutoCloseable {
+
+  static final int DECODERS = Integer.getInteger(
+      "load.decoders", Runtime.getRuntime().availableProcessors());
+  static final long SEGMENT_BYTES = Long.getLong("load.segmentBytes", 1 << 20);
+
+  final File file;
+  final long size;
+  final ExecutorService executor;
+  final int ventana;
+  final Queue<CompletableFuture<List<ProyectoLey>>> pendientes = new ArrayDeque<>();
+  long siguienteInicio = 0;
+
+  LecturaParalela(Path input) throws IOException {
+    this(input, DECODERS);
+  }
+
+  LecturaParalela(Path input, int decoders) throws IOException {
+    if (decoders < 1) throw new IllegalArgumentException("decoders < 1");
+    this.file = input.toFile();
+    this.size = Files.size(input);
+    var counter = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(decoders, r -> {
+      var thread = new Thread(r, "decode-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.ventana = 2 * decoders;
+    while (pendientes.size() < ventana && siguienteInicio < size) enviar();
+  }
+
+  private void enviar() {
+    var inicio = siguienteInicio;
+    var fin = Math.min(inicio + SEGMENT_BYTES, size);
+    siguienteInicio = fin;
+    pendientes.add(CompletableFuture.supplyAsync(() -> leer(inicio, fin), executor));
+  }
+
+  private List<ProyectoLey> leer(long inicio, long fin) {
+    try (var reader = new DataFileReader<>(file, Simbolos.lector())) {
+      reader.sync(inicio);
+      var proyectos = new ArrayList<ProyectoLey>();
+      while (reader.hasNext() && !reader.pastSync(fin)) proyectos.add(reader.next());
+      return proyectos;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  boolean hasNext() {
+    return !pendientes.isEmpty();
+  }
+
+  // proyectos del siguiente tramo, en el orden del archivo
+  List<ProyectoLey> next() {
+    var tramo = pendientes.poll();
+    if (tramo == null) throw new NoSuchElementException();
+    if (siguienteInicio < size) enviar();
+    return tramo.join();
+  }
+
+  @Override public void close() {
+    executor.shutdownNow();
+  }
+}
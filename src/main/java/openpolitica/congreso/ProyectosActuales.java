@@ -0,0 +1,93 @@
+package openpolitica.congreso;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import openpolitica.congreso.leyes.ProyectoLey;
+import org.apache.avro.file.DataFileReader;
+
+/**
+ * Proyectos del archivo Avro actual para la extraccion incremental. En memoria solo se mantiene
+ * lo que se compara con el indice (fecha de actualizacion y estado) y el bloque donde esta cada
+ * proyecto; el registro completo se lee del archivo cuando se necesita.
+ */
+class ProyectosActuales implements AutoCloseable {
+
+  static class Resumen {
+    final Long actualizacionFecha;
+    final String estado;
+    final long bloque;
+
+    Resumen(Long actualizacionFecha, String estado, long bloque) {
+      this.actualizacionFecha = actualizacionFecha;
+      this.estado = estado;
+      this.bloque = bloque;
+    }
+  }
+
+  static final ProyectosActuales NINGUNO = new ProyectosActuales(null, Map.of());
+
+  final DataFileReader<ProyectoLey> reader;
+  final Map<String, Resumen> resumenes;
+
+  // ultimo bloque leido: los proyectos del indice suelen llegar en el orden del archivo
+  long bloqueLeido = -1;
+  List<ProyectoLey> proyectosBloque = List.of();
+
+  private ProyectosActuales(DataFileReader<ProyectoLey> reader, Map<String, Resumen> resumenes) {
+    this.reader = reader;
+    this.resumenes = resumenes;
+  }
+
+  static ProyectosActuales load(Path actual) throws IOException {
+    var reader = new DataFileReader<>(actual.toFile(), Simbolos.lector());
+    var resumenes = new HashMap<String, Resumen>();
+    ProyectoLey proyecto = null;
+    while (reader.hasNext()) {
+      // al terminar un bloque previousSync() ya apunta al siguiente, se toma antes de leer
+      var bloque = reader.previousSync();
+      proyecto = reader.next(proyecto);
+      resumenes.put(proyecto.getPeriodoNumero(), new Resumen(
+          proyecto.getActualizacionFecha(),
+          proyecto.getEstado(),
+          bloque));
+    }
+    return new ProyectosActuales(reader, resumenes);
+  }
+
+  int size() {
+    return resumenes.size();
+  }
+
+  boolean sinCambios(Map<String, Object> importado) {
+    var resumen = resumenes.get((String) importado.get("numero"));
+    return resumen != null
+        && Objects.equals(resumen.actualizacionFecha, importado.get("actualizacion_fecha"))
+        && Objects.equals(resumen.estado, importado.get("estado"));
+  }
+
+  synchronized ProyectoLey get(String numero) throws IOException {
+    var resumen = resumenes.get(numero);
+    if (resumen.bloque != bloqueLeido) {
+      reader.seek(resumen.bloque);
+      var proyectos = new ArrayList<ProyectoLey>();
+      while (reader.hasNext() && reader.previousSync() == resumen.bloque) {
+        proyectos.add(reader.next());
+      }
+      bloqueLeido = resumen.bloque;
+      proyectosBloque = proyectos;
+    }
+    for (var proyecto : proyectosBloque) {
+      if (proyecto.getPeriodoNumero().equals(numero)) return proyecto;
+    }
+    throw new IllegalStateException("Proyecto " + numero + " no encontrado en su bloque");
+  }
+
+  @Override public void close() throws IOException {
+    if (reader != null) reader.close();
+  }
+}
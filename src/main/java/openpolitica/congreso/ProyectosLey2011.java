@@ -11,12 +11,10 @@ public class ProyectosLey2011 {
         "/Sicr/TraDocEstProc/CLProLey2011.nsf/Local%20Por%20Numero?OpenView=&Start=",
         "/Sicr/TraDocEstProc/Expvirt_2011.nsf/visbusqptramdoc1621/%s?opendocument",
         1000);
-    var proyectos = app.run();
     var avro = Path.of("data/proyectos-ley-2011.avro");
-    var changed = app.save(avro, proyectos);
-    if (changed) {
-      var loader = new ProyectosLeyLoadSqlite();
-      loader.save(avro, Path.of("data/proyectos-ley-2011.db"));
-    }
+    var extraccion = app.run(avro);
+    var cambios = app.save(avro, extraccion);
+    var loader = new ProyectosLeyLoadSqlite();
+    loader.update(avro, Path.of("data/proyectos-ley-2011.db"), cambios);
   }
 }
@@ -11,12 +11,10 @@ public class ProyectosLey2016 {
         "/Sicr/TraDocEstProc/CLProLey2016.nsf/Local%20Por%20Numero?OpenView=&Start=",
         "/Sicr/TraDocEstProc/Expvirt_2011.nsf/visbusqptramdoc1621/%s?opendocument",
         500);
-    var proyectos = ext.run();
     var avro = Path.of("data/proyectos-ley-2016.avro");
-    var changed = ext.save(avro, proyectos);
-    if (changed) {
-      var loader = new ProyectosLeyLoadSqlite();
-      loader.save(avro, Path.of("data/proyectos-ley-2016.db"));
-    }
+    var extraccion = ext.run(avro);
+    var cambios = ext.save(avro, extraccion);
+    var loader = new ProyectosLeyLoadSqlite();
+    loader.update(avro, Path.of("data/proyectos-ley-2016.db"), cambios);
   }
 }
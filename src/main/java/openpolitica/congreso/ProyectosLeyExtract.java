@@ -5,33 +5,35 @@ import io.github.resilience4j.retry.RetryConfig;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import openpolitica.congreso.leyes.Congresista;
 import openpolitica.congreso.leyes.Documento;
 import openpolitica.congreso.leyes.Enlaces;
 import openpolitica.congreso.leyes.Expediente;
 import openpolitica.congreso.leyes.Ley;
 import openpolitica.congreso.leyes.ProyectoLey;
-import openpolitica.congreso.leyes.Seguimiento;
 import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.DataFileWriter;
-import org.apache.avro.specific.SpecificDatumReader;
 import org.apache.avro.specific.SpecificDatumWriter;
 import org.jsoup.HttpStatusException;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.slf4j.Logger;
@@ -42,119 +44,246 @@ import static java.util.stream.Collectors.toList;
 public class ProyectosLeyExtract {
 
   static final Logger LOG = LoggerFactory.getLogger(ProyectosLeyExtract.class);
-  static final Pattern datePattern = Pattern.compile("\\d{2}/\\d{2}/\\d{4}");
+  static final int PREFETCH = Integer.getInteger("crawl.prefetch", 2);
+  // mientras espera paginas o cupo de proyectos, cada cuanto guarda las paginas ya completas
+  static final long ESPERA_GUARDADO_MS = 200;
+  static final Pagina FIN_INDICE = new Pagina(0, Map.of());
+  static final boolean INCREMENTAL = Boolean.getBoolean("crawl.incremental");
+  static final boolean RESUME = Boolean.getBoolean("crawl.resume");
 
   final String baseUrl;
   final String proyectosUrl;
   final String expedienteUrl;
   final int maxBatchSize;
+  final int concurrency;
+  final HttpFetcher http = new HttpFetcher();
 
   public ProyectosLeyExtract(
       String baseUrl,
       String proyectosUrl,
       String expedienteUrl,
       int maxBatchSize
+  ) {
+    this(baseUrl, proyectosUrl, expedienteUrl, maxBatchSize, CrawlEngine.DEFAULT_CONCURRENCY);
+  }
+
+  public ProyectosLeyExtract(
+      String baseUrl,
+      String proyectosUrl,
+      String expedienteUrl,
+      int maxBatchSize,
+      int concurrency
   ) {
     this.baseUrl = baseUrl;
     this.proyectosUrl = proyectosUrl;
     this.expedienteUrl = expedienteUrl;
     this.maxBatchSize = maxBatchSize;
+    this.concurrency = concurrency;
   }
 
   DataFileReader<ProyectoLey> load(Path input) throws IOException {
-    var reader = new SpecificDatumReader<>(ProyectoLey.class);
-    return new DataFileReader<>(input.toFile(), reader);
+    return new DataFileReader<>(input.toFile(), Simbolos.lector());
   }
 
-  ArrayList<ProyectoLey> run() {
-    LOG.info("Iniciando extraccion");
-    var index = 1;
-    var batchSize = 0;
+  // modo incremental: solo se descargan los proyectos nuevos o con fecha de actualizacion o estado
+  // distinto en el indice; el resto se mantiene del archivo actual
+  Checkpoint run(Path output) throws IOException {
+    try (var actuales = INCREMENTAL && Files.isRegularFile(output) ?
+        ProyectosActuales.load(output) :
+        ProyectosActuales.NINGUNO) {
+      if (actuales.size() > 0) {
+        LOG.info("Extraccion incremental sobre {} proyectos actuales", actuales.size());
+      }
+      return run(output, actuales);
+    }
+  }
 
-    var proyectos = new ArrayList<ProyectoLey>();
-
-    do {
-      var pagina =
-          Retry.decorateFunction(
-              Retry.of("importar-proyectos", RetryConfig.custom()
-                  .maxAttempts(3)
-                  .retryExceptions(RuntimeException.class)
-                  .waitDuration(Duration.ofSeconds(10))
-                  .build()),
-              this::importarPagina)
-              .apply(index);
-
-      proyectos.addAll(pagina.entrySet().parallelStream()
-          .map(entry ->
-              Retry.decorateFunction(
-                  Retry.of("importar-seguimiento", RetryConfig.custom()
-                      .maxAttempts(3)
-                      .retryExceptions(RuntimeException.class)
-                      .waitDuration(Duration.ofSeconds(10))
-                      .build()),
-                  this::importarSeguimiento)
-                  .apply(entry.getValue()))
-          .parallel()
-          .map(p ->
-              Retry.decorateFunction(
-                  Retry.of("importar-expediente", RetryConfig.custom()
-                      .maxAttempts(3)
-                      .retryExceptions(RuntimeException.class)
-                      .waitDuration(Duration.ofSeconds(10))
-                      .build()),
-                  this::importarExpediente)
-                  .apply(p))
-          .collect(toList()));
-
-      batchSize = pagina.size();
-      index = index + batchSize;
-
-      LOG.info("Proyectos importados: {}", index);
-    } while (batchSize == maxBatchSize);
-
-    proyectos.sort(Comparator.comparing(ProyectoLey::getPeriodoNumero));
-    return proyectos;
-  }
-
-  boolean save(Path output, List<ProyectoLey> proyectos) throws IOException {
-    LOG.info("{} proyectos extraidos", proyectos.size());
-    if (Files.isRegularFile(output)) {
-      var reader = load(output);
-      var current = new ArrayList<ProyectoLey>();
-      while (reader.hasNext()) {
-        current.add(reader.next());
+  // cada pagina completa se guarda en el checkpoint de output, en orden, antes de continuar
+  Checkpoint run(Path output, ProyectosActuales actuales) throws IOException {
+    LOG.info("Iniciando extraccion, concurrencia {}", concurrency);
+    var mantenidos = 0;
+    var importados = 0;
+
+    // el indice se descarga por adelantado mientras se completan los proyectos en curso
+    var paginas = new ArrayBlockingQueue<Pagina>(PREFETCH);
+    var pendientes = new Semaphore(2 * maxBatchSize);
+
+    var checkpoint = Checkpoint.open(output, RESUME);
+    try (checkpoint; var engine = new CrawlEngine(concurrency)) {
+      var inicio = checkpoint.siguienteIndice();
+      var indice = engine.background("crawl-indice", () -> importarIndice(inicio, paginas));
+      var enCurso = new ArrayDeque<Pagina>();
+      for (var pagina = siguiente(paginas, enCurso, checkpoint);
+          pagina != FIN_INDICE;
+          pagina = siguiente(paginas, enCurso, checkpoint)) {
+        for (var importado : pagina.proyectos.values()) {
+          if (actuales.sinCambios(importado)) {
+            var actual = actuales.get((String) importado.get("numero"));
+            pagina.importados.add(CompletableFuture.completedFuture(actual));
+            mantenidos++;
+            continue;
+          }
+          while (!pendientes.tryAcquire(ESPERA_GUARDADO_MS, TimeUnit.MILLISECONDS)) {
+            guardarCompletas(enCurso, checkpoint);
+          }
+          pagina.importados.add(importarProyecto(engine, importado)
+              .whenComplete((proyecto, error) -> pendientes.release()));
+          importados++;
+        }
+        enCurso.add(pagina);
+        guardarCompletas(enCurso, checkpoint);
       }
-      current.sort(Comparator.comparing(ProyectoLey::getPeriodoNumero));
-      LOG.info("{} proyectos actuales", current.size());
-      if (current.equals(proyectos)) {
-        LOG.info("Proyectos de ley no han cambiado");
-        return false;
+      // las ultimas paginas se guardan a medida que terminan, aunque el indice haya fallado
+      for (var pagina = enCurso.poll(); pagina != null; pagina = enCurso.poll()) {
+        checkpoint.append(pagina.siguienteIndice(), pagina.join());
       }
+      indice.join();
+
+      LOG.info("Proyectos importados: {}, sin cambios: {}", importados, mantenidos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Extraccion interrumpida", e);
+    }
+    return checkpoint;
+  }
+
+  // siguiente pagina del indice; mientras no llega se guardan las paginas que van terminando
+  static Pagina siguiente(BlockingQueue<Pagina> paginas, Queue<Pagina> enCurso,
+      Checkpoint checkpoint) throws InterruptedException, IOException {
+    var pagina = paginas.poll(ESPERA_GUARDADO_MS, TimeUnit.MILLISECONDS);
+    while (pagina == null) {
+      guardarCompletas(enCurso, checkpoint);
+      pagina = paginas.poll(ESPERA_GUARDADO_MS, TimeUnit.MILLISECONDS);
+    }
+    return pagina;
+  }
+
+  // las paginas se guardan en orden: una pagina completa espera a las anteriores
+  static void guardarCompletas(Queue<Pagina> enCurso, Checkpoint checkpoint) throws IOException {
+    while (!enCurso.isEmpty() && enCurso.peek().completa()) {
+      var completa = enCurso.poll();
+      checkpoint.append(completa.siguienteIndice(), completa.join());
+    }
+  }
+
+  void importarIndice(int inicio, BlockingQueue<Pagina> paginas) {
+    var index = inicio;
+    var batchSize = 0;
+    try {
+      do {
+        var pagina = conReintentos("importar-proyectos", this::importarPagina).apply(index);
+        paginas.put(new Pagina(index, pagina));
+
+        batchSize = pagina.size();
+        index = index + batchSize;
+
+        LOG.info("Indice importado: {}", index);
+      } while (batchSize == maxBatchSize);
+      paginas.put(FIN_INDICE);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      // run() falla al unir el indice; se marca el final para no dejarlo bloqueado
+      paginas.clear();
+      paginas.offer(FIN_INDICE);
+      throw e;
+    }
+  }
+
+  static class Pagina {
+    final int inicio;
+    final Map<String, Map<String, Object>> proyectos;
+    final List<CompletableFuture<ProyectoLey>> importados = new ArrayList<>();
+
+    Pagina(int inicio, Map<String, Map<String, Object>> proyectos) {
+      this.inicio = inicio;
+      this.proyectos = proyectos;
+    }
+
+    int siguienteIndice() {
+      return inicio + proyectos.size();
     }
 
+    boolean completa() {
+      return importados.stream().allMatch(CompletableFuture::isDone);
+    }
+
+    List<ProyectoLey> join() {
+      return importados.stream()
+          .map(CompletableFuture::join)
+          .filter(Objects::nonNull)
+          .collect(toList());
+    }
+  }
+
+  static <T, R> Function<T, R> conReintentos(String nombre, Function<T, R> funcion) {
+    return Retry.decorateFunction(
+        Retry.of(nombre, RetryConfig.custom()
+            .maxAttempts(3)
+            .retryExceptions(RuntimeException.class)
+            .waitDuration(Duration.ofSeconds(10))
+            .build()),
+        funcion);
+  }
+
+  // los proyectos se escriben a medida que se unen los lotes; nunca se cargan todos en memoria
+  // proyectos que cambiaron respecto del archivo anterior; vacio si no hubo cambios, pero aun asi
+  // la base se debe actualizar por si una actualizacion anterior fallo
+  Cambios save(Path output, Checkpoint extraccion) throws IOException {
+    LOG.info("{} proyectos extraidos", extraccion.registros());
+
+    var tmp = output.resolveSibling(output.getFileName() + ".tmp");
+    var huellas = new Huellas();
     var datumWriter = new SpecificDatumWriter<>(ProyectoLey.class);
-    try (var writer = new DataFileWriter<>(datumWriter)) {
+    try (var writer = new DataFileWriter<>(datumWriter); var proyectos = extraccion.merge()) {
       writer.setCodec(CodecFactory.zstandardCodec(CodecFactory.DEFAULT_ZSTANDARD_LEVEL));
-      writer.create(ProyectoLey.getClassSchema(), output.toFile());
+      writer.create(ProyectoLey.getClassSchema(), tmp.toFile());
+      while (proyectos.hasNext()) {
+        var proyecto = proyectos.next();
+        writer.append(proyecto);
+        huellas.put(proyecto);
+      }
+    }
 
-      proyectos.forEach(s -> {
-        try {
-          if (s != null) {
-            writer.append(s);
-          }
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      });
+    Cambios cambios;
+    if (Files.isRegularFile(output)) {
+      cambios = comparar(output, tmp, huellas);
+      cambios.anterior = Huellas.identificador(output);
+      if (cambios.isEmpty()) {
+        LOG.info("Proyectos de ley no han cambiado");
+        Files.delete(tmp);
+        // las huellas nuevas describen el archivo actual, aunque las anteriores no sirvieran
+        huellas.save(output);
+        Checkpoint.delete(output);
+        return cambios;
+      }
+      LOG.info("Proyectos de ley con cambios: {}", cambios);
+    } else {
+      cambios = new Cambios();
+      cambios.agregados.addAll(huellas.numerosUnicos());
     }
 
-    return true;
+    Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    huellas.save(output);
+
+    Checkpoint.delete(output);
+    return cambios;
+  }
+
+  // con huellas del periodo basta comparar 8 bytes por proyecto; si no, se recorren ambos archivos
+  Cambios comparar(Path output, Path nuevo, Huellas huellas) throws IOException {
+    var actuales = Huellas.load(output);
+    if (actuales != null) return actuales.comparar(huellas);
+    try (var proyectosActuales = load(output); var proyectos = load(nuevo)) {
+      return Cambios.comparar(proyectosActuales, proyectos);
+    }
   }
 
   Map<String, Map<String, Object>> importarPagina(int index) {
     try {
       var url = baseUrl + proyectosUrl + index;
-      var doc = Jsoup.connect(url).get();
+      // el indice siempre se revalida: de el salen los proyectos nuevos y los cambiados
+      var doc = http.get(url, true);
       var tablas = doc.body().getElementsByTag("table");
       if (tablas.size() != 4) {
         LOG.error("Numero de tablas inesperado: {}, url={}", tablas.size(), url);
@@ -181,14 +310,10 @@ public class ProyectosLeyExtract {
     var numero = campos.get(0).text();
     var fechaActualizacion = campos.get(1).text().isBlank() ?
         null :
-        fechaProyecto(campos.get(1).text().trim());
-    var fechaPresentacion = fechaProyecto(campos.get(2).text().trim());
-    var estado = campos.get(3).text();
-    var titulo = campos.get(4).text()
-        .replaceAll("\"\"", "\"")
-        .replaceAll("\"", "'")
-        .replaceAll(",,", ",")
-        .replaceAll(":", ".-");
+        Fechas.proyecto(campos.get(1).text().trim());
+    var fechaPresentacion = Fechas.proyecto(campos.get(2).text().trim());
+    var estado = Simbolos.de(campos.get(3).text());
+    var titulo = Textos.titulo(campos.get(4).text());
     var enlaceSeguimiento = baseUrl + campos.get(0).getElementsByTag("a").attr("href");
     var proyecto = new HashMap<String, Object>();
     proyecto.put("numero", numero);
@@ -201,21 +326,94 @@ public class ProyectosLeyExtract {
     return proyecto;
   }
 
-  private Long fechaProyecto(String texto) {
-    return LocalDate.parse(texto, DateTimeFormatter.ofPattern("MM/dd/yyyy"))
-        .atStartOfDay()
-        .toInstant(ZoneOffset.ofHours(-5))
-        .toEpochMilli();
+  // descarga seguimiento y expediente a la vez; el enlace del expediente solo depende del numero.
+  // cada lado reintenta la descarga junto con su procesamiento: una pagina incompleta falla al
+  // procesarla y se vuelve a pedir
+  CompletableFuture<ProyectoLey> importarProyecto(
+      CrawlEngine engine,
+      Map<String, Object> importado
+  ) {
+    var seguimiento = engine.submit(() ->
+        conReintentos("importar-seguimiento", this::leerSeguimiento).apply(importado));
+    var expediente = engine.submit(() ->
+        conReintentos("importar-expediente", this::leerExpediente)
+            .apply(enlaceExpediente((String) importado.get("numero"))));
+    return seguimiento.thenCombine(expediente, (builder, leido) -> {
+      if (builder.isEmpty()) return null;
+      return importarExpediente(builder.get(), leido.orElse(null));
+    });
   }
 
-  ProyectoLey.Builder importarSeguimiento(Map<String, Object> importado) {
+  Optional<ProyectoLey.Builder> leerSeguimiento(Map<String, Object> importado) {
+    var url = (String) importado.get("enlace_seguimiento");
+    return descargarSeguimiento(importado).map(doc -> {
+      try {
+        return importarSeguimiento(importado, doc);
+      } catch (RuntimeException e) {
+        http.descartar(url);
+        throw e;
+      }
+    });
+  }
+
+  Optional<ExpedienteLeido> leerExpediente(String enlaceExpediente) {
+    return descargarExpediente(enlaceExpediente).map(doc -> {
+      try {
+        return new ExpedienteLeido(doc);
+      } catch (Throwable e) {
+        LOG.error("Error procesando expediente {}", enlaceExpediente, e);
+        http.descartar(enlaceExpediente);
+        throw new RuntimeException(e);
+      }
+    });
+  }
+
+  String enlaceExpediente(String numero) {
+    return String.format(baseUrl + expedienteUrl, numero);
+  }
+
+  Optional<Document> descargarSeguimiento(Map<String, Object> importado) {
+    var url = (String) importado.get("enlace_seguimiento");
+    try {
+      return Optional.of(http.get(url));
+    } catch (HttpStatusException e) {
+      if (e.getStatusCode() == 404) {
+        LOG.error("Error procesando proyecto {} referencia {}. Pagina no existe!!!",
+            importado, url);
+        return Optional.empty();
+      }
+      LOG.error("Error procesando proyecto {} referencia {}", importado, url, e);
+      throw new RuntimeException(e);
+    } catch (Throwable e) {
+      LOG.error("Error procesando proyecto {} referencia {}", importado, url, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  Optional<Document> descargarExpediente(String enlaceExpediente) {
+    try {
+      return Optional.of(http.get(enlaceExpediente));
+    } catch (HttpStatusException e) {
+      if (e.getStatusCode() == 404) {
+        LOG.warn("Error procesando expediente {}, no encontrado", enlaceExpediente);
+        return Optional.empty();
+      } else {
+        LOG.error("Error procesando expediente {}", enlaceExpediente, e);
+        throw new RuntimeException(e);
+      }
+    } catch (Throwable e) {
+      LOG.error("Error procesando expediente {}", enlaceExpediente, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  ProyectoLey.Builder importarSeguimiento(Map<String, Object> importado, Document doc) {
     var url = (String) importado.get("enlace_seguimiento");
     try {
-      var doc = Jsoup.connect(url).get();
       var tablas = doc.body().getElementsByTag("table");
 
       var numero = (String) importado.get("numero");
-      var urlExpediente = String.format(baseUrl + expedienteUrl, numero);
+      var urlExpediente = enlaceExpediente(numero);
 
       var ley = Ley.newBuilder();
 
@@ -240,37 +438,7 @@ public class ProyectosLeyExtract {
         }
       });
 
-      var seguimientos = new ArrayList<Seguimiento>();
-      if (proyecto.getSeguimientoTexto() != null && !proyecto.getSeguimientoTexto().isBlank()) {
-        var matcher = datePattern.matcher(proyecto.getSeguimientoTexto());
-        var textos = Arrays.stream(proyecto.getSeguimientoTexto().split(datePattern.pattern()))
-            .map(String::trim)
-            .filter(s -> !s.isBlank())
-            .collect(toList());
-        for (String texto : textos) {
-          if (matcher.find()) {
-            var fecha = matcher.group();
-            seguimientos.add(Seguimiento.newBuilder()
-                .setEvento(texto)
-                .setFecha(fecha(fecha))
-                .build());
-          }
-        }
-      }
-
-      var prefix = "Decretado a...";
-      var sectores = new ArrayList<String>();
-      for (Seguimiento s : seguimientos) {
-        if (s.getEvento().startsWith(prefix)) {
-          final var sector = s.getEvento().substring(prefix.length() + 1).strip();
-          if (sector.contains("-")) {
-            var corregido = sector.substring(0, sector.indexOf("-"));
-            sectores.add(corregido);
-          } else {
-            sectores.add(sector);
-          }
-        }
-      }
+      var seguimientos = Seguimientos.leer(proyecto.getSeguimientoTexto(), Fechas::seguimiento);
 
       if (proyecto.getTitulo() == null) proyecto.setTitulo((String) importado.get("titulo"));
 
@@ -278,8 +446,8 @@ public class ProyectosLeyExtract {
           .setEstado((String) importado.get("estado"))
           .setActualizacionFecha((Long) importado.get("actualizacion_fecha"))
           .setPublicacionFecha((Long) importado.get("publicacion_fecha"))
-          .setSectores(sectores)
-          .setSeguimiento(seguimientos)
+          .setSectores(seguimientos.sectores)
+          .setSeguimiento(seguimientos.eventos)
           .setLey(ley.getNumero() == null ? null : ley.build())
           .setEnlacesBuilder(Enlaces.newBuilder()
               .setExpediente(urlExpediente)
@@ -287,14 +455,6 @@ public class ProyectosLeyExtract {
               .setOpinionesPublicar(null)
               .setSeguimiento(url));
       return proyecto;
-    } catch (HttpStatusException e) {
-      if (e.getStatusCode() == 404) {
-        LOG.error("Error procesando proyecto {} referencia {}. Pagina no existe!!!",
-            importado, url);
-        return null;
-      }
-      LOG.error("Error procesando proyecto {} referencia {}", importado, url, e);
-      throw new RuntimeException(e);
     } catch (Throwable e) {
       LOG.error("Error procesando proyecto {} referencia {}", importado, url, e);
       throw new RuntimeException(e);
@@ -312,15 +472,15 @@ public class ProyectosLeyExtract {
     var value = split.length == 2 ? split[1] : "";
     var texto = entry == null ? "" : entry.text().trim();
     switch (key) {
-      case "Período", "Período Parlamentario" -> builder.setPeriodo(texto);
-      case "Legislatura", "Legislatura." -> builder.setLegislatura(texto);
+      case "Período", "Período Parlamentario" -> builder.setPeriodo(Simbolos.de(texto));
+      case "Legislatura", "Legislatura." -> builder.setLegislatura(Simbolos.de(texto));
       case "Fecha Presentación" -> {
       }
-      case "Proponente" -> builder.setProponente(texto);
+      case "Proponente" -> builder.setProponente(Simbolos.de(texto));
       case "Grupo Parlamentario" -> {
         var grupoParlamentario = field.child(1).text();
         if (!grupoParlamentario.isBlank()) {
-          builder.setGrupoParlamentario(grupoParlamentario);
+          builder.setGrupoParlamentario(Simbolos.de(grupoParlamentario));
           var autores = field.getElementsByTag("p").first();
           builder.setAutores(autores(autores));
         } else {
@@ -329,11 +489,7 @@ public class ProyectosLeyExtract {
       }
       case "Título" -> {
         var t = field.getElementsByTag("font").get(1).text();
-        builder.setTitulo(t
-            .replaceAll("\"\"", "\"")
-            .replaceAll("\"", "'")
-            .replaceAll(",,", ",")
-            .replaceAll(":", ".-"));
+        builder.setTitulo(Textos.titulo(t));
       }
       case "Objeto del Proyecto de Ley" -> {
         var t = field.getElementsByTag("font").get(1).text();
@@ -376,7 +532,7 @@ public class ProyectosLeyExtract {
   private List<Congresista> autores(Element element) {
     return Arrays.stream(element.text().split(","))
         .map(s -> Congresista.newBuilder()
-            .setNombreCompleto(s)
+            .setNombreCompleto(Simbolos.de(s))
             .setCorreoElectronico(null)
             .build())
         .collect(toList());
@@ -395,50 +551,32 @@ public class ProyectosLeyExtract {
 
   private List<String> adherentes(Element element) {
     if (element == null) return List.of();
-    return Arrays.asList(element.text().split(","));
-  }
-
-  private Long fecha(String texto) {
-    return LocalDate.parse(texto
-            .replaceAll("58/08/2018", "08/08/2018")
-            .replaceAll("59/02/2017", "06/02/2017")
-            .replaceAll("60/02/2017", "06/02/2017")
-            .replaceAll("61/02/2017", "06/02/2017")
-            .replaceAll("62/02/2017", "06/02/2017")
-            // 2011
-            .replaceAll("35/07/2014", "25/07/2014")
-        , DateTimeFormatter.ofPattern("dd/MM/yyyy"))
-        .atStartOfDay()
-        .toInstant(ZoneOffset.ofHours(-5))
-        .toEpochMilli();
-  }
-
-  ProyectoLey importarExpediente(ProyectoLey.Builder builder) {
-    var enlaceExpediente = builder.getEnlacesBuilder().getExpediente();
-    try {
-      var doc = Jsoup.connect(enlaceExpediente).get();
-      var expedienteBuilder = mapExpediente(doc);
-      builder.setExpediente(expedienteBuilder.build());
+    var adherentes = Arrays.asList(element.text().split(","));
+    Simbolos.de(adherentes);
+    return adherentes;
+  }
 
-      //extrayendo opiniones
-      var enlacesBuilder = builder.getEnlacesBuilder();
-      mapEnlacesOpiniones(doc, enlacesBuilder);
+  // expediente ya procesado; los enlaces de opiniones se copian al proyecto al combinar
+  class ExpedienteLeido {
+    final Expediente expediente;
+    final Enlaces.Builder enlaces = Enlaces.newBuilder();
 
-      return builder.build();
-    } catch (HttpStatusException e) {
-      if (e.getStatusCode() == 404) {
-        LOG.warn("Error procesando expediente {}, no encontrado", enlaceExpediente);
-        return builder.setExpediente(null).build();
-      } else {
-        LOG.error("Error procesando expediente {}", enlaceExpediente, e);
-        throw new RuntimeException(e);
-      }
-    } catch (Throwable e) {
-      LOG.error("Error procesando expediente {}", enlaceExpediente, e);
-      throw new RuntimeException(e);
+    ExpedienteLeido(Document doc) {
+      this.expediente = mapExpediente(doc).build();
+      //extrayendo opiniones
+      mapEnlacesOpiniones(doc, enlaces);
     }
   }
 
+  ProyectoLey importarExpediente(ProyectoLey.Builder builder, ExpedienteLeido leido) {
+    if (leido == null) return builder.setExpediente(null).build();
+    builder.setExpediente(leido.expediente);
+    builder.getEnlacesBuilder()
+        .setOpinionesPublicar(leido.enlaces.getOpinionesPublicar())
+        .setOpinionesPublicadas(leido.enlaces.getOpinionesPublicadas());
+    return builder.build();
+  }
+
   private static void mapEnlacesOpiniones(Document doc, Enlaces.Builder enlacesBuilder) {
     var exps = doc.body().select("td[width=173]").stream()
         .filter(e -> e.getElementsByTag("table").size() > 0)
@@ -635,106 +773,23 @@ public class ProyectosLeyExtract {
     }
   }
 
+  // Documento.fecha es opcional: solo aqui se pasa a Long
   private Long fecha(Element td) {
-    if (td.text().isBlank() || td.text().equals("Sinfecha")) {
-      //LOG.warn("Fecha vacia! {}", td.html());
-      return null;
-    } else
-      //agregar cualquier condicion para arreglar inconsistencias en fechas
-      if (td.text().length() == 10 && !td.text().startsWith(", ")) {
-        return LocalDate.parse(td.text(),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"))
-            .atStartOfDay()
-            .toInstant(ZoneOffset.ofHours(-5))
-            .toEpochMilli();
-      } else {
-        if (td.text().length() == 8) {
-          return LocalDate.parse(td.text()
-                  .replaceAll("\\s+", "")
-                  .replaceAll("-", "")
-                  .replaceAll("\\+", "")
-                  .replaceAll("\\(", "/")
-                  .replaceAll("//", "/")
-                  .replaceAll("02/15/19", "15/02/19")
-                  .replaceAll("20/0708", "20/07/18")
-                  .replaceAll("09/13/09", "09/12/09")
-                  .replaceAll("190220", "19/02/20")
-                  .replaceAll("180220", "18/02/20")
-              ,
-              DateTimeFormatter.ofPattern("dd/MM/yy"))
-              .atStartOfDay()
-              .toInstant(ZoneOffset.ofHours(-5))
-              .toEpochMilli();
-        } else if (td.text().length() == 6) {
-          return LocalDate.parse(td.text(),
-              DateTimeFormatter.ofPattern("ddMMyy"))
-              .atStartOfDay()
-              .toInstant(ZoneOffset.ofHours(-5))
-              .toEpochMilli();
-        } else {
-          if (td.text().length() > 10 || td.text().length() < 6 || td.text().equals("Sinfecha")) {
-            return null;
-          } else {
-            try {
-              return LocalDate.parse(td.text()
-                      .replaceAll("O14/01/21", "14/01/21")
-                      .replaceAll("\\s+", "")
-                      .replaceAll("-", "")
-                      .replaceAll("\\+", "")
-                      .replaceAll("//", "/")
-                      .replaceAll("011", "11")
-                      .replaceAll("119", "19")
-                      .replaceAll("240", "24")
-                      .replaceAll("178", "18")
-                      .replaceAll("187", "18")
-                      .replaceAll("182", "18")
-                      .replaceAll("0520", "05/20")
-                      .replaceAll("5/04/19", "05/04/19")
-                      .replaceAll("0719", "07/19")
-                      .replaceAll("0617", "06/17")
-                      .replaceAll("1710", "17/10")
-                      .replaceAll("1018", "10/18")
-                      .replaceAll("0208", "02/08")
-                      .replaceAll("1907", "19/07")
-                      .replaceAll("23/03/18/", "23/03/18")
-                      .replaceAll("02/15/19", "15/02/19")
-                      .replaceAll("21/5/20", "21/05/20")
-                      .replaceAll("20/0708", "20/07/18")
-                      .replaceAll("21/012/06", "21/12/06")
-                      .replaceAll("12/142/06", "12/12/06")
-                      .replaceAll("15/0307", "15/03/07")
-                      .replaceAll("21/1206", "21/12/06")
-                      .replaceAll("029/06/06", "29/06/06")
-                      .replaceAll("30/1106", "30/11/06")
-                      .replaceAll("014/01/21", "14/01/21")
-                      .replaceAll("06/1206", "06/12/06")
-                      .replaceAll("22/05/8", "22/05/08")
-                      .replaceAll("08/05/8", "08/05/08")
-                      .replaceAll(", 22/09/09", "22/09/09")
-                      .replaceAll(", ", "")
-                      .replaceAll(",", "")
-                      .replaceAll("\\(", "/")
-                  ,
-                  DateTimeFormatter.ofPattern("dd/MM/yy"))
-                  .atStartOfDay()
-                  .toInstant(ZoneOffset.ofHours(-5))
-                  .toEpochMilli();
-            } catch (DateTimeParseException e) {
-              e.printStackTrace();
-              return null;
-            }
-          }
-        }
-      }
+    var fecha = Fechas.documento(td.text());
+    return fecha == Fechas.SIN_FECHA ? null : fecha;
   }
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     var ext = new ProyectosLeyExtract(
         "http://www2.congreso.gob.pe",
         "/Sicr/TraDocEstProc/CLProLey2016.nsf/Local%20Por%20Numero?OpenView=&Start=",
         "/Sicr/TraDocEstProc/Expvirt_2011.nsf/visbusqptramdoc1621/%s?opendocument",
         100);
-    var proyectos = ext.run();
-    System.out.println(proyectos);
+    var output = Files.createTempDirectory("proyectos-ley").resolve("proyectos-ley.avro");
+    try (var proyectos = ext.run(output).merge()) {
+      proyectos.forEachRemaining(System.out::println);
+    } finally {
+      Checkpoint.delete(output);
+    }
   }
 }
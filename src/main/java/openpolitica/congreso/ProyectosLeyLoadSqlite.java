@@ -1,60 +1,413 @@
 package openpolitica.congreso;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 import openpolitica.congreso.leyes.ProyectoLey;
-import org.apache.avro.file.DataFileReader;
-import org.apache.avro.specific.SpecificDatumReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ProyectosLeyLoadSqlite {
   static final Logger LOG = LoggerFactory.getLogger(ProyectosLeyLoadSqlite.class);
 
-  static List<TableLoad> tableLoadList = List.of(
-      new ProyectoTableLoad(),
-      new ExpedienteTableLoad(),
-      new IniciativaAgrupadaTableLoad(),
-      new CongresistaTableLoad(),
-      new AdherenteTableLoad(),
-      new AutorTableLoad(),
-      new SectoresTableLoad(),
-      new SeguimientoTableLoad()
+  // la transaccion se confirma por proyectos: las filas de cada proyecto van juntas a la base
+  static final int COMMIT_EVERY_PROYECTOS = Integer.getInteger("load.commitEveryProyectos", 1000);
+
+  // sin journal ni fsync durante la carga; se restauran los valores seguros al terminar
+  static final List<String> BULK_LOAD_PRAGMAS = List.of(
+      "pragma journal_mode = off",
+      "pragma synchronous = off",
+      "pragma cache_size = -262144",
+      "pragma temp_store = memory"
+  );
+
+  static final List<String> SAFE_PRAGMAS = List.of(
+      "pragma journal_mode = delete",
+      "pragma synchronous = full",
+      "pragma cache_size = -2000",
+      "pragma temp_store = default"
   );
 
-  DataFileReader<ProyectoLey> load(Path input) throws IOException {
-    var reader = new SpecificDatumReader<>(ProyectoLey.class);
-    return new DataFileReader<>(input.toFile(), reader);
+  // paginas mas grandes que las 4 KiB por defecto: menos paginas por recorrido de tabla
+  static final int PAGE_SIZE = 8192;
+
+  // se guarda en pragma user_version; una base con otra version se vuelve a cargar completa
+  static final int SCHEMA_VERSION = 7;
+
+  final List<TableLoad> tableLoadList;
+
+  public ProyectosLeyLoadSqlite() {
+    this(false);
   }
 
+  // combinada: base de varios periodos, con periodo como ultima columna de las tablas por proyecto
+  ProyectosLeyLoadSqlite(boolean combinada) {
+    var estados = new DimensionTableLoad("estado", "fact_proyecto.estado_id");
+    var grupos = new DimensionTableLoad(
+        "grupo_parlamentario", "fact_proyecto.grupo_parlamentario_id");
+    var sectores = new DimensionTableLoad("sector", "fact_sector.sector_id");
+    var congresistas = new CongresistaTableLoad();
+    // las dimensiones van al final: insertan los valores nuevos que encontraron las demas tablas
+    tableLoadList = List.of(
+        new ProyectoTableLoad(estados, grupos),
+        new ExpedienteTableLoad(),
+        new IniciativaAgrupadaTableLoad(),
+        new AdherenteTableLoad(congresistas),
+        new AutorTableLoad(congresistas),
+        new SectoresTableLoad(sectores),
+        new SeguimientoTableLoad(),
+        new ProyectoFtsTableLoad(),
+        new SeguimientoFtsTableLoad(),
+        new ExpedienteFtsTableLoad(),
+        new ProyectosPorMesEstadoTableLoad(),
+        new ProyectosPorSectorTableLoad(),
+        new ProyectosPorGrupoTableLoad(),
+        new LeyesPorAutorTableLoad(),
+        estados,
+        grupos,
+        sectores,
+        congresistas
+    );
+    for (var tableLoad : tableLoadList) tableLoad.combinada = combinada;
+  }
+
+  // un solo recorrido del archivo: cada proyecto se decodifica una vez y se pasa a todas las tablas
+  // se construye en un archivo temporal que reemplaza al publicado solo cuando esta completo
   public void save(Path input, Path output) throws SQLException, IOException {
-    var jdbcUrl = "jdbc:sqlite:" + output.toAbsolutePath();
-    try (var connection = DriverManager.getConnection(jdbcUrl)) {
-      var statement = connection.createStatement();
+    var tmp = output.resolveSibling(output.getFileName() + ".tmp");
+    build(input, tmp, true);
+    Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.info("Database {} replaced", output);
+  }
+
+  // sin publicar solo se cargan las tablas: sin indices, estadisticas ni vacuum
+  void build(Path input, Path output, boolean publicar) throws SQLException, IOException {
+    try (var connection = create(output)) {
+      connection.setAutoCommit(false);
+      try {
+        var count = insert(connection, input, pl -> true, true);
+        LOG.info("Tables updated, {} proyectos loaded", count);
+        if (publicar) {
+          guardarOrigen(connection, input);
+          createIndexes(connection);
+        }
+      } catch (SQLException | IOException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+      if (publicar) finish(connection);
+    } catch (SQLException | IOException | RuntimeException e) {
+      Files.deleteIfExists(output);
+      throw e;
+    }
+  }
+
+  /**
+   * Una sola base con todos los periodos. Cada periodo se carga en paralelo en su propia base
+   * temporal; al final se adjuntan una por una y se copian a la base combinada, que comparte las
+   * tablas de dimensiones. Solo en esta base las tablas por proyecto tienen la columna periodo, al
+   * final; las bases de un periodo mantienen sus columnas.
+   */
+  public void saveCombined(List<Path> inputs, Path output) throws SQLException, IOException {
+    var stagings = new ArrayList<Path>();
+    for (var input : inputs) {
+      stagings.add(output.resolveSibling(input.getFileName() + ".staging"));
+    }
+    var executor = Executors.newFixedThreadPool(inputs.size());
+    try {
+      var cargas = new ArrayList<CompletableFuture<Void>>();
+      for (int i = 0; i < inputs.size(); i++) {
+        var input = inputs.get(i);
+        var staging = stagings.get(i);
+        cargas.add(CompletableFuture.runAsync(() -> {
+          try {
+            new ProyectosLeyLoadSqlite(true).build(input, staging, false);
+          } catch (SQLException | IOException e) {
+            throw new RuntimeException(e);
+          }
+        }, executor));
+      }
+      CompletableFuture.allOf(cargas.toArray(CompletableFuture[]::new)).join();
+      LOG.info("{} periods loaded", inputs.size());
+
+      var tmp = output.resolveSibling(output.getFileName() + ".tmp");
+      var combinada = new ProyectosLeyLoadSqlite(true);
+      try (var connection = combinada.create(tmp)) {
+        for (var staging : stagings) combinada.merge(connection, staging);
+        connection.setAutoCommit(false);
+        try {
+          combinada.createIndexes(connection);
+        } finally {
+          connection.setAutoCommit(true);
+        }
+        combinada.finish(connection);
+      } catch (SQLException | RuntimeException e) {
+        Files.deleteIfExists(tmp);
+        throw e;
+      }
+      Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.info("Database {} replaced", output);
+    } finally {
+      executor.shutdownNow();
+      for (var staging : stagings) Files.deleteIfExists(staging);
+    }
+  }
+
+  // copia una base de un periodo; las dimensiones primero, para traducir sus ids
+  void merge(Connection connection, Path staging) throws SQLException {
+    try (var ps = connection.prepareStatement("attach database ? as staging")) {
+      ps.setString(1, staging.toAbsolutePath().toString());
+      ps.execute();
+    }
+    connection.setAutoCommit(false);
+    try (var statement = connection.createStatement()) {
+      for (var tableLoad : tableLoadList) {
+        if (tableLoad instanceof DimensionTableLoad) {
+          statement.executeUpdate(tableLoad.mergeStatement());
+        }
+      }
+      for (var tableLoad : tableLoadList) {
+        if (!(tableLoad instanceof DimensionTableLoad)) {
+          statement.executeUpdate(tableLoad.mergeStatement());
+        }
+      }
+      connection.commit();
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(true);
+    }
+    try (var statement = connection.createStatement()) {
+      statement.execute("detach database staging");
+    }
+    LOG.info("{} merged", staging);
+  }
+
+  Connection create(Path output) throws SQLException, IOException {
+    Files.deleteIfExists(output);
+    var connection = DriverManager.getConnection("jdbc:sqlite:" + output.toAbsolutePath());
+    try (var statement = connection.createStatement()) {
+      // solo tiene efecto antes de crear la primera tabla
+      statement.execute("pragma page_size = " + PAGE_SIZE);
+      for (var pragma : BULK_LOAD_PRAGMAS) statement.execute(pragma);
       for (var tableLoad : tableLoadList) {
-        LOG.info("Loading {}", tableLoad.tableName);
         statement.executeUpdate(tableLoad.dropTableStatement());
         statement.executeUpdate(tableLoad.createTableStatement());
         LOG.info("Table {} created", tableLoad.tableName);
+      }
+      for (var tableLoad : tableLoadList) {
+        var view = tableLoad.createViewStatement();
+        if (view != null) statement.executeUpdate(view);
+      }
+      statement.execute("pragma user_version = " + SCHEMA_VERSION);
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+    return connection;
+  }
 
-        var ps = connection.prepareStatement(tableLoad.prepareStatement());
-        LOG.info("Statement for {} prepared", tableLoad.tableName);
+  // los indices se construyen de una vez sobre las tablas cargadas
+  void createIndexes(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      for (var tableLoad : tableLoadList) {
+        for (var index : tableLoad.createIndexStatements()) statement.executeUpdate(index);
+      }
+    }
+    connection.commit();
+    LOG.info("Indexes created");
+  }
 
-        var reader = load(input);
-        while (reader.hasNext()) tableLoad.addBatch(ps, reader.next());
-        LOG.info("Batch for {} ready", tableLoad.tableName);
-        ps.executeBatch();
-        LOG.info("Table {} updated", tableLoad.tableName);
+  void finish(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      for (var pragma : SAFE_PRAGMAS) statement.execute(pragma);
+      statement.execute("analyze");
+      statement.execute("vacuum");
+    }
+  }
+
+  /**
+   * Actualiza solo los proyectos en {@code cambios}: borra sus filas de todas las tablas y vuelve
+   * a insertar los agregados y modificados. Si la base no existe, tiene otro esquema o no se
+   * cargo del archivo contra el que se calcularon los cambios, se carga completa.
+   */
+  public void update(Path input, Path output, Cambios cambios) throws SQLException, IOException {
+    if (!Files.isRegularFile(output) || schemaVersion(output) != SCHEMA_VERSION) {
+      LOG.info("Database {} missing or outdated, loading all tables", output);
+      save(input, output);
+      return;
+    }
+    // una actualizacion que fallo despues de reemplazar el archivo deja la base con el anterior
+    if (cambios.anterior == null || !Arrays.equals(origen(output), cambios.anterior)) {
+      LOG.info("Database {} was not loaded from the previous file, loading all tables", output);
+      save(input, output);
+      return;
+    }
+    if (cambios.isEmpty()) return;
+
+    var nuevos = new HashSet<String>(cambios.agregados);
+    nuevos.addAll(cambios.modificados);
+    var jdbcUrl = "jdbc:sqlite:" + output.toAbsolutePath();
+    try (var connection = DriverManager.getConnection(jdbcUrl)) {
+      connection.setAutoCommit(false);
+      try {
+        try (var statement = connection.createStatement()) {
+          statement.execute("create temp table cambio (numero_unico text primary key)");
+        }
+        try (var ps = connection.prepareStatement("insert or ignore into cambio values (?)")) {
+          for (var numero : nuevos) {
+            ps.setString(1, numero);
+            ps.addBatch();
+          }
+          for (var numero : cambios.eliminados) {
+            ps.setString(1, numero);
+            ps.addBatch();
+          }
+          ps.executeBatch();
+        }
+        // un recorrido por tabla en lugar de un delete por proyecto
+        try (var statement = connection.createStatement()) {
+          for (var tableLoad : tableLoadList) {
+            var delete = tableLoad.deleteStatement();
+            if (delete != null) statement.executeUpdate(delete);
+          }
+        }
+
+        // una sola transaccion: los lectores ven la base anterior o la actualizada completa
+        var count = insert(connection, input, pl -> nuevos.contains(pl.getNumeroUnico()), false);
+
+        try (var statement = connection.createStatement()) {
+          var removed = 0;
+          for (var tableLoad : tableLoadList) {
+            var delete = tableLoad.deleteUnreferencedStatement();
+            if (delete != null) removed += statement.executeUpdate(delete);
+          }
+          LOG.info("Tables updated: {} proyectos loaded, {} removed, {} unused values removed",
+              count, cambios.eliminados.size(), removed);
+          statement.execute("drop table cambio");
+        }
+        guardarOrigen(connection, input);
+        connection.commit();
+      } catch (SQLException | IOException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+      // sin vacuum, que reescribe la base completa; optimize actualiza las estadisticas que cambiaron
+      try (var statement = connection.createStatement()) {
+        statement.execute("pragma optimize");
+      }
+    }
+  }
+
+  // archivo del que se cargo la base, en la misma transaccion que la carga
+  static void guardarOrigen(Connection connection, Path input) throws SQLException, IOException {
+    try (var statement = connection.createStatement()) {
+      statement.execute("create table if not exists origen (avro blob)");
+      statement.execute("delete from origen");
+    }
+    try (var ps = connection.prepareStatement("insert into origen values (?)")) {
+      ps.setBytes(1, Huellas.identificador(input));
+      ps.execute();
+    }
+  }
+
+  // null si la base no registra su archivo
+  static byte[] origen(Path output) throws SQLException {
+    var jdbcUrl = "jdbc:sqlite:" + output.toAbsolutePath();
+    try (var connection = DriverManager.getConnection(jdbcUrl);
+        var statement = connection.createStatement();
+        var tabla = statement.executeQuery(
+            "select 1 from sqlite_master where type = 'table' and name = 'origen'")) {
+      if (!tabla.next()) return null;
+      try (var rs = statement.executeQuery("select avro from origen")) {
+        return rs.next() ? rs.getBytes(1) : null;
       }
     }
   }
 
+  static int schemaVersion(Path output) throws SQLException {
+    var jdbcUrl = "jdbc:sqlite:" + output.toAbsolutePath();
+    try (var connection = DriverManager.getConnection(jdbcUrl);
+        var statement = connection.createStatement();
+        var rs = statement.executeQuery("pragma user_version")) {
+      return rs.next() ? rs.getInt(1) : 0;
+    }
+  }
+
+  // inserta en todas las tablas los proyectos aceptados por el filtro; porTramos confirma cada
+  // COMMIT_EVERY_PROYECTOS proyectos, si no la transaccion queda abierta para quien llama
+  int insert(Connection connection, Path input, Predicate<ProyectoLey> filtro, boolean porTramos)
+      throws SQLException, IOException {
+    var statements = new ArrayList<PreparedStatement>();
+    try {
+      for (var tableLoad : tableLoadList) {
+        tableLoad.open(connection);
+        statements.add(connection.prepareStatement(tableLoad.prepareStatement()));
+      }
+      LOG.info("Statements prepared");
+
+      // otros hilos descomprimen y decodifican el archivo; este es el unico que escribe
+      var count = 0;
+      try (var lectura = new LecturaParalela(input)) {
+        while (lectura.hasNext()) {
+          for (var pl : lectura.next()) {
+            var incluido = filtro.test(pl);
+            for (int i = 0; i < tableLoadList.size(); i++) {
+              var tableLoad = tableLoadList.get(i);
+              if (incluido || tableLoad.needsAllProyectos()) {
+                tableLoad.addBatch(statements.get(i), pl);
+              }
+            }
+            if (incluido && ++count % COMMIT_EVERY_PROYECTOS == 0) {
+              commit(connection, statements, porTramos);
+              LOG.info("{} proyectos loaded", count);
+            }
+          }
+        }
+      }
+      for (int i = 0; i < tableLoadList.size(); i++) {
+        tableLoadList.get(i).flush(statements.get(i));
+      }
+      commit(connection, statements, porTramos);
+      return count;
+    } finally {
+      for (var ps : statements) ps.close();
+    }
+  }
+
+  static void commit(Connection connection, List<PreparedStatement> statements, boolean commit)
+      throws SQLException {
+    for (var ps : statements) ps.executeBatch();
+    if (commit) connection.commit();
+  }
+
   abstract static class TableLoad {
     final String tableName;
+    boolean combinada;
 
     public TableLoad(String tableName) {
       this.tableName = tableName;
@@ -64,44 +417,224 @@ public class ProyectosLeyLoadSqlite {
       return "drop table if exists %s".formatted(tableName);
     }
 
+    // filas de los proyectos en la tabla temporal de cambios
+    String deleteStatement() {
+      return "delete from %s where numero_unico in (select numero_unico from cambio)"
+          .formatted(tableName);
+    }
+
     abstract String createTableStatement();
 
+    // vista con las columnas que tenia la tabla antes de codificar sus valores repetidos
+    String createViewStatement() {
+      return null;
+    }
+
+    // por defecto las tablas de detalle se consultan por proyecto
+    List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"));
+    }
+
+    String indexStatement(String column) {
+      return "create index %s_%s on %s (%s)".formatted(tableName, column, tableName, column);
+    }
+
+    // copia las filas de la base de un periodo adjunta como staging, ver saveCombined
+    String mergeStatement() {
+      return "insert into %s select * from staging.%s".formatted(tableName, tableName);
+    }
+
+    // valores que ya no usa ningun proyecto despues de una actualizacion
+    String deleteUnreferencedStatement() {
+      return null;
+    }
+
+    // antes de insertar, con la base ya creada
+    void open(Connection connection) throws SQLException {
+    }
+
+    // tablas que resumen el periodo completo: reciben tambien los proyectos sin cambios
+    boolean needsAllProyectos() {
+      return false;
+    }
+
+    // despues del ultimo proyecto
+    void flush(PreparedStatement ps) throws SQLException {
+    }
+
     abstract String prepareStatement();
 
     abstract void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException;
+
+    // columna periodo, parametro y valor; vacios fuera de la base combinada
+    String columnaPeriodo() {
+      return combinada ? ",\n  periodo text" : "";
+    }
+
+    String parametroPeriodo() {
+      return combinada ? ", ?" : "";
+    }
+
+    void setPeriodo(PreparedStatement ps, int index, ProyectoLey pl) throws SQLException {
+      if (combinada) ps.setString(index, pl.getPeriodo());
+    }
+  }
+
+  static void setId(PreparedStatement ps, int index, Integer id) throws SQLException {
+    if (id != null) ps.setInt(index, id);
+    else ps.setNull(index, Types.INTEGER);
+  }
+
+  /**
+   * Valores repetidos en muchas filas (estado, sector, ...) guardados una vez con un id entero.
+   * Los ids se asignan en memoria durante el recorrido; las filas nuevas se insertan al final de
+   * cada proyecto.
+   */
+  static class DimensionTableLoad extends TableLoad {
+    final String column;
+    // columnas que guardan el id, como "tabla.columna"
+    final List<String> referencias;
+    final Map<String, Integer> ids = new HashMap<>();
+    final List<String> nuevos = new ArrayList<>();
+    int siguienteId;
+
+    public DimensionTableLoad(String column, String... referencias) {
+      super("dim_" + column);
+      this.column = column;
+      this.referencias = List.of(referencias);
+    }
+
+    @Override String createTableStatement() {
+      return """
+          create table %s (
+            id integer primary key,
+            %s text not null unique
+          )
+          """.formatted(tableName, column);
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of();
+    }
+
+    @Override String deleteStatement() {
+      return null;
+    }
+
+    // not in en lugar de un not exists correlacionado, que recorre las referencias por cada valor;
+    // los nulos se filtran porque con un null en la lista not in no borra nada
+    @Override String deleteUnreferencedStatement() {
+      var usados = new StringJoiner(" union ");
+      for (var referencia : referencias) {
+        var partes = referencia.split("\\.");
+        usados.add("select %s from %s where %s is not null"
+            .formatted(partes[1], partes[0], partes[1]));
+      }
+      return "delete from %s where id not in (%s)".formatted(tableName, usados);
+    }
+
+    @Override void open(Connection connection) throws SQLException {
+      ids.clear();
+      nuevos.clear();
+      siguienteId = 1;
+      try (var statement = connection.createStatement();
+          var rs = statement.executeQuery(
+              "select id, %s from %s".formatted(column, tableName))) {
+        while (rs.next()) {
+          ids.put(rs.getString(2), rs.getInt(1));
+          siguienteId = Math.max(siguienteId, rs.getInt(1) + 1);
+        }
+      }
+    }
+
+    // agrega los valores que aun no estan en la base combinada, con ids nuevos
+    @Override String mergeStatement() {
+      return """
+          insert into %s (%s)
+          select d.%s from staging.%s d
+          where d.%s not in (select %s from %s)
+          order by d.id
+          """.formatted(tableName, column, column, tableName, column, column, tableName);
+    }
+
+    // copia una tabla (numero_unico, id, periodo) cambiando los ids del periodo por los combinados
+    String mergeReferencesStatement(String table, String idColumn) {
+      return """
+          insert into %s
+          select f.numero_unico, m.id, f.periodo
+          from staging.%s f
+          left join staging.%s d on d.id = f.%s
+          left join %s m on m.%s = d.%s
+          """.formatted(table, table, tableName, idColumn, tableName, column, column);
+    }
+
+    Integer id(String valor) {
+      if (valor == null) return null;
+      var id = ids.get(valor);
+      if (id == null) {
+        id = siguienteId++;
+        ids.put(valor, id);
+        nuevos.add(valor);
+      }
+      return id;
+    }
+
+    @Override String prepareStatement() {
+      return """
+          insert into %s values (
+            ?, ?
+          )
+          """.formatted(tableName);
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
+      for (var valor : nuevos) {
+        ps.setInt(1, ids.get(valor));
+        ps.setString(2, valor);
+        ps.addBatch();
+      }
+      nuevos.clear();
+    }
   }
 
   static class ProyectoTableLoad extends TableLoad {
-    public ProyectoTableLoad() {
-      super("proyecto");
+    final DimensionTableLoad estados;
+    final DimensionTableLoad grupos;
+
+    public ProyectoTableLoad(DimensionTableLoad estados, DimensionTableLoad grupos) {
+      super("fact_proyecto");
+      this.estados = estados;
+      this.grupos = grupos;
     }
 
     String createTableStatement() {
       return """
           create table %s (
-            periodo string,
-            periodo_numero string,
-            estado string,
-            publicacion_fecha long,
-            actualizacion_fecha long,
-            numero_unico string primary key,
-            titulo string,
-            sumilla string,
-            legislatura string,
-            proponente string,
-            grupo_parlamentario string,
-            seguimiento_texto string,
-            expediente_titulo string,
-            expediente_subtitulo string,
-            ley_numero string,
-            ley_titulo string,
-            ley_sumilla string,     
-            enlace_seguimiento string,
-            enlace_expediente string,
-            enlace_opiniones_publicadas string,
-            enlace_opiniones_publicar string
+            periodo text,
+            periodo_numero text,
+            estado_id integer,
+            publicacion_fecha integer,
+            actualizacion_fecha integer,
+            numero_unico text %s,
+            titulo text,
+            sumilla text,
+            legislatura text,
+            proponente text,
+            grupo_parlamentario_id integer,
+            seguimiento_texto text,
+            expediente_titulo text,
+            expediente_subtitulo text,
+            ley_numero text,
+            ley_titulo text,
+            ley_sumilla text,
+            enlace_seguimiento text,
+            enlace_expediente text,
+            enlace_opiniones_publicadas text,
+            enlace_opiniones_publicar text%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName,
+              combinada ? "not null" : "primary key",
+              combinada ? ",\n  primary key (periodo, numero_unico)" : "");
     }
 
     String prepareStatement() {
@@ -114,28 +647,103 @@ public class ProyectosLeyLoadSqlite {
           """.formatted(tableName);
     }
 
+    String mergeStatement() {
+      return """
+          insert into %s
+          select
+            p.periodo,
+            p.periodo_numero,
+            me.id,
+            p.publicacion_fecha,
+            p.actualizacion_fecha,
+            p.numero_unico,
+            p.titulo,
+            p.sumilla,
+            p.legislatura,
+            p.proponente,
+            mg.id,
+            p.seguimiento_texto,
+            p.expediente_titulo,
+            p.expediente_subtitulo,
+            p.ley_numero,
+            p.ley_titulo,
+            p.ley_sumilla,
+            p.enlace_seguimiento,
+            p.enlace_expediente,
+            p.enlace_opiniones_publicadas,
+            p.enlace_opiniones_publicar
+          from staging.%s p
+          left join staging.%s e on e.id = p.estado_id
+          left join %s me on me.estado = e.estado
+          left join staging.%s g on g.id = p.grupo_parlamentario_id
+          left join %s mg on mg.grupo_parlamentario = g.grupo_parlamentario
+          """.formatted(tableName, tableName,
+              estados.tableName, estados.tableName, grupos.tableName, grupos.tableName);
+    }
+
+    String createViewStatement() {
+      return """
+          create view proyecto as
+          select
+            p.periodo,
+            p.periodo_numero,
+            e.estado,
+            p.publicacion_fecha,
+            p.actualizacion_fecha,
+            p.numero_unico,
+            p.titulo,
+            p.sumilla,
+            p.legislatura,
+            p.proponente,
+            g.grupo_parlamentario,
+            p.seguimiento_texto,
+            p.expediente_titulo,
+            p.expediente_subtitulo,
+            p.ley_numero,
+            p.ley_titulo,
+            p.ley_sumilla,
+            p.enlace_seguimiento,
+            p.enlace_expediente,
+            p.enlace_opiniones_publicadas,
+            p.enlace_opiniones_publicar
+          from %s p
+          left join %s e on e.id = p.estado_id
+          left join %s g on g.id = p.grupo_parlamentario_id
+          """.formatted(tableName, estados.tableName, grupos.tableName);
+    }
+
+    List<String> createIndexStatements() {
+      var indices = new ArrayList<String>();
+      // en la base combinada numero_unico ya no es la clave primaria
+      if (combinada) indices.add(indexStatement("numero_unico"));
+      indices.add(indexStatement("estado_id"));
+      indices.add(indexStatement("publicacion_fecha"));
+      indices.add(indexStatement("actualizacion_fecha"));
+      indices.add(indexStatement("grupo_parlamentario_id"));
+      return indices;
+    }
+
     void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
       ps.setString(1, pl.getPeriodo());
       ps.setString(2, pl.getPeriodoNumero());
-      ps.setString(3, pl.getEstado());
+      setId(ps, 3, estados.id(pl.getEstado()));
       ps.setLong(4, pl.getPublicacionFecha());
       if (pl.getActualizacionFecha() != null) ps.setLong(5, pl.getActualizacionFecha());
+      else ps.setNull(5, Types.BIGINT);
       ps.setString(6, pl.getNumeroUnico());
       ps.setString(7, pl.getTitulo());
       ps.setString(8, pl.getSumilla());
       ps.setString(9, pl.getLegislatura());
       ps.setString(10, pl.getProponente());
-      ps.setString(11, pl.getGrupoParlamentario());
+      setId(ps, 11, grupos.id(pl.getGrupoParlamentario()));
       ps.setString(12, pl.getSeguimientoTexto());
-      if (pl.getExpediente() != null) {
-        ps.setString(13, pl.getExpediente().getTitulo());
-        ps.setString(14, pl.getExpediente().getSubtitulo());
-      }
-      if (pl.getLey() != null) {
-        ps.setString(15, pl.getLey().getNumero());
-        ps.setString(16, pl.getLey().getTitulo());
-        ps.setString(17, pl.getLey().getSumilla());
-      }
+      var expediente = pl.getExpediente();
+      ps.setString(13, expediente == null ? null : expediente.getTitulo());
+      ps.setString(14, expediente == null ? null : expediente.getSubtitulo());
+      var ley = pl.getLey();
+      ps.setString(15, ley == null ? null : ley.getNumero());
+      ps.setString(16, ley == null ? null : ley.getTitulo());
+      ps.setString(17, ley == null ? null : ley.getSumilla());
       ps.setString(18, pl.getEnlaces().getSeguimiento());
       ps.setString(19, pl.getEnlaces().getExpediente());
       ps.setString(20, pl.getEnlaces().getOpinionesPublicadas());
@@ -153,24 +761,25 @@ public class ProyectosLeyLoadSqlite {
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            iniciativa string
+            numero_unico text,
+            iniciativa text%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?
+            ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
       for (String ia : pl.getIniciativasAgrupadas()) {
         ps.setString(1, pl.getNumeroUnico());
         ps.setString(2, ia);
+        setPeriodo(ps, 3, pl);
         ps.addBatch();
       }
     }
@@ -178,31 +787,52 @@ public class ProyectosLeyLoadSqlite {
 
   static class AutorTableLoad extends TableLoad {
 
-    public AutorTableLoad() {
-      super("autor");
+    final CongresistaTableLoad congresistas;
+
+    public AutorTableLoad(CongresistaTableLoad congresistas) {
+      super("fact_autor");
+      this.congresistas = congresistas;
     }
 
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            congresista string
+            numero_unico text,
+            congresista_id integer%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?
+            ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
+    }
+
+    @Override String mergeStatement() {
+      return congresistas.mergeReferencesStatement(tableName, "congresista_id");
+    }
+
+    @Override String createViewStatement() {
+      return """
+          create view autor as
+          select f.numero_unico, d.congresista%s
+          from %s f
+          left join %s d on d.id = f.congresista_id
+          """.formatted(combinada ? ", f.periodo" : "", tableName, congresistas.tableName);
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"), indexStatement("congresista_id"));
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
       for (var c : pl.getAutores()) {
         ps.setString(1, pl.getNumeroUnico());
-        ps.setString(2, c.getNombreCompleto());
+        setId(ps, 2, congresistas.id(c.getNombreCompleto(), c.getCorreoElectronico()));
+        setPeriodo(ps, 3, pl);
         ps.addBatch();
       }
     }
@@ -210,95 +840,171 @@ public class ProyectosLeyLoadSqlite {
 
   static class AdherenteTableLoad extends TableLoad {
 
-    public AdherenteTableLoad() {
-      super("adherente");
+    final CongresistaTableLoad congresistas;
+
+    public AdherenteTableLoad(CongresistaTableLoad congresistas) {
+      super("fact_adherente");
+      this.congresistas = congresistas;
     }
 
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            congresista string
+            numero_unico text,
+            congresista_id integer%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?
+            ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
+    }
+
+    @Override String mergeStatement() {
+      return congresistas.mergeReferencesStatement(tableName, "congresista_id");
+    }
+
+    @Override String createViewStatement() {
+      return """
+          create view adherente as
+          select f.numero_unico, d.congresista%s
+          from %s f
+          left join %s d on d.id = f.congresista_id
+          """.formatted(combinada ? ", f.periodo" : "", tableName, congresistas.tableName);
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"), indexStatement("congresista_id"));
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
       for (var c : pl.getAdherentes()) {
         ps.setString(1, pl.getNumeroUnico());
-        ps.setString(2, c);
+        setId(ps, 2, congresistas.id(c, null));
+        setPeriodo(ps, 3, pl);
         ps.addBatch();
       }
     }
   }
 
-  static class CongresistaTableLoad extends TableLoad {
+  // autores y adherentes; la vista congresista mantiene solo a los autores, como antes
+  static class CongresistaTableLoad extends DimensionTableLoad {
+    final Map<String, String> emails = new HashMap<>();
 
     public CongresistaTableLoad() {
-      super("congresista");
+      super("congresista", "fact_autor.congresista_id", "fact_adherente.congresista_id");
     }
 
     @Override String createTableStatement() {
       return """
           create table %s (
-            congresista string primary key,
-            email string unique
+            id integer primary key,
+            congresista text not null unique,
+            email text
           )
           """.formatted(tableName);
     }
 
+    @Override String createViewStatement() {
+      return """
+          create view congresista as
+          select d.congresista, d.email
+          from %s d
+          where exists (select 1 from fact_autor a where a.congresista_id = d.id)
+          """.formatted(tableName);
+    }
+
+    @Override String mergeStatement() {
+      return """
+          insert into %s (congresista, email)
+          select d.congresista, d.email from staging.%s d
+          where d.congresista not in (select congresista from %s)
+          order by d.id
+          """.formatted(tableName, tableName, tableName);
+    }
+
+    @Override void open(Connection connection) throws SQLException {
+      super.open(connection);
+      emails.clear();
+    }
+
+    // el primer correo visto para cada congresista, como hacia insert or ignore
+    Integer id(String nombre, String email) {
+      if (nombre != null && email != null && !ids.containsKey(nombre)) emails.put(nombre, email);
+      return id(nombre);
+    }
+
     @Override String prepareStatement() {
       return """
-          insert or ignore into %s values (
-            ?, ?
+          insert into %s values (
+            ?, ?, ?
           )
           """.formatted(tableName);
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
-      for (var c : pl.getAutores()) {
-        ps.setString(1, c.getNombreCompleto());
-        ps.setString(2, c.getCorreoElectronico());
+      for (var nombre : nuevos) {
+        ps.setInt(1, ids.get(nombre));
+        ps.setString(2, nombre);
+        ps.setString(3, emails.remove(nombre));
         ps.addBatch();
       }
+      nuevos.clear();
     }
   }
 
   static class SectoresTableLoad extends TableLoad {
 
-    public SectoresTableLoad() {
-      super("sector");
+    final DimensionTableLoad sectores;
+
+    public SectoresTableLoad(DimensionTableLoad sectores) {
+      super("fact_sector");
+      this.sectores = sectores;
     }
 
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            sector string
+            numero_unico text,
+            sector_id integer%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?
+            ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
+    }
+
+    @Override String mergeStatement() {
+      return sectores.mergeReferencesStatement(tableName, "sector_id");
+    }
+
+    @Override String createViewStatement() {
+      return """
+          create view sector as
+          select f.numero_unico, d.sector%s
+          from %s f
+          left join %s d on d.id = f.sector_id
+          """.formatted(combinada ? ", f.periodo" : "", tableName, sectores.tableName);
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"), indexStatement("sector_id"));
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
       for (var s : pl.getSectores()) {
         ps.setString(1, pl.getNumeroUnico());
-        ps.setString(2, s);
+        setId(ps, 2, sectores.id(s));
+        setPeriodo(ps, 3, pl);
         ps.addBatch();
       }
     }
@@ -313,19 +1019,23 @@ public class ProyectosLeyLoadSqlite {
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            fecha long,
-            evento string
+            numero_unico text,
+            fecha integer,
+            evento text%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?, ?
+            ?, ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"), indexStatement("fecha"));
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
@@ -333,6 +1043,7 @@ public class ProyectosLeyLoadSqlite {
         ps.setString(1, pl.getNumeroUnico());
         ps.setLong(2, s.getFecha());
         ps.setString(3, s.getEvento());
+        setPeriodo(ps, 4, pl);
         ps.addBatch();
       }
     }
@@ -347,21 +1058,25 @@ public class ProyectosLeyLoadSqlite {
     @Override String createTableStatement() {
       return """
           create table %s (
-            numero_unico string,
-            documento_tipo string,
-            documento_fecha long,
-            documento_titulo string,
-            documento_enlace string
+            numero_unico text,
+            documento_tipo text,
+            documento_fecha integer,
+            documento_titulo text,
+            documento_enlace text%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, columnaPeriodo());
     }
 
     @Override String prepareStatement() {
       return """
           insert into %s values (
-            ?, ?, ?, ?, ?
+            ?, ?, ?, ?, ?%s
           )
-          """.formatted(tableName);
+          """.formatted(tableName, parametroPeriodo());
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of(indexStatement("numero_unico"), indexStatement("documento_fecha"));
     }
 
     @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
@@ -369,17 +1084,220 @@ public class ProyectosLeyLoadSqlite {
         for (var d : pl.getExpediente().getDocumentos()) {
           ps.setString(1, pl.getNumeroUnico());
           ps.setString(2, d.getTipo());
-          if (d.getFecha() != null) {
-            ps.setLong(3, d.getFecha());
-          }
+          if (d.getFecha() != null) ps.setLong(3, d.getFecha());
+          else ps.setNull(3, Types.BIGINT);
           ps.setString(4, d.getTitulo());
           ps.setString(5, d.getEnlace());
+          setPeriodo(ps, 6, pl);
+          ps.addBatch();
+        }
+      }
+    }
+  }
+
+  /**
+   * Indice de texto completo FTS5. unicode61 con remove_diacritics 2 ignora tildes y mayusculas,
+   * de modo que "educacion" encuentra "Educación". numero_unico se guarda sin indexar para unir
+   * con las demas tablas.
+   */
+  abstract static class FtsTableLoad extends TableLoad {
+    final List<String> columns;
+
+    public FtsTableLoad(String tableName, String... columns) {
+      super(tableName);
+      this.columns = List.of(columns);
+    }
+
+    @Override String createTableStatement() {
+      return """
+          create virtual table %s using fts5 (
+            numero_unico unindexed,
+            %s%s,
+            tokenize = 'unicode61 remove_diacritics 2'
+          )
+          """.formatted(tableName, String.join(", ", columns),
+              combinada ? ", periodo unindexed" : "");
+    }
+
+    // despues de la carga masiva une los segmentos del indice en uno solo
+    @Override List<String> createIndexStatements() {
+      return List.of("insert into %s (%s) values ('optimize')".formatted(tableName, tableName));
+    }
+
+    @Override String prepareStatement() {
+      return "insert into %s values (?%s%s)"
+          .formatted(tableName, ", ?".repeat(columns.size()), parametroPeriodo());
+    }
+  }
+
+  static class ProyectoFtsTableLoad extends FtsTableLoad {
+
+    public ProyectoFtsTableLoad() {
+      super("proyecto_fts", "titulo", "sumilla");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
+      ps.setString(1, pl.getNumeroUnico());
+      ps.setString(2, pl.getTitulo());
+      ps.setString(3, pl.getSumilla());
+      setPeriodo(ps, 4, pl);
+      ps.addBatch();
+    }
+  }
+
+  static class SeguimientoFtsTableLoad extends FtsTableLoad {
+
+    public SeguimientoFtsTableLoad() {
+      super("seguimiento_fts", "evento");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
+      for (var s : pl.getSeguimiento()) {
+        if (s.getEvento() == null) continue;
+        ps.setString(1, pl.getNumeroUnico());
+        ps.setString(2, s.getEvento());
+        setPeriodo(ps, 3, pl);
+        ps.addBatch();
+      }
+    }
+  }
+
+  static class ExpedienteFtsTableLoad extends FtsTableLoad {
+
+    public ExpedienteFtsTableLoad() {
+      super("expediente_fts", "documento_titulo");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) throws SQLException {
+      if (pl.getExpediente() != null) {
+        for (var d : pl.getExpediente().getDocumentos()) {
+          if (d.getTitulo() == null) continue;
+          ps.setString(1, pl.getNumeroUnico());
+          ps.setString(2, d.getTitulo());
+          setPeriodo(ps, 3, pl);
           ps.addBatch();
         }
       }
     }
   }
 
+  /**
+   * Conteos precalculados para los tableros. Se acumulan en memoria durante el mismo recorrido
+   * sobre todos los proyectos del periodo y se escriben al final, reemplazando los anteriores.
+   */
+  abstract static class ResumenTableLoad extends TableLoad {
+    final List<String> columns;
+    final String countColumn;
+    final Map<List<String>, Integer> conteos = new HashMap<>();
+
+    public ResumenTableLoad(String tableName, String countColumn, String... columns) {
+      super(tableName);
+      this.countColumn = countColumn;
+      this.columns = List.of(columns);
+    }
+
+    // la base combinada suma por periodo, que va al final de la clave
+    List<String> clave() {
+      if (!combinada) return columns;
+      var clave = new ArrayList<>(columns);
+      clave.add("periodo");
+      return clave;
+    }
+
+    @Override String createTableStatement() {
+      var definiciones = new StringBuilder();
+      for (var column : clave()) definiciones.append(column).append(" text, ");
+      return "create table %s (%s%s integer not null)"
+          .formatted(tableName, definiciones, countColumn);
+    }
+
+    @Override List<String> createIndexStatements() {
+      return List.of();
+    }
+
+    @Override String deleteStatement() {
+      return "delete from %s".formatted(tableName);
+    }
+
+    @Override boolean needsAllProyectos() {
+      return true;
+    }
+
+    @Override void open(Connection connection) {
+      conteos.clear();
+    }
+
+    @Override String prepareStatement() {
+      return "insert into %s values (%s?)"
+          .formatted(tableName, "?, ".repeat(clave().size()));
+    }
+
+    void sumar(ProyectoLey pl, String... valores) {
+      var clave = new ArrayList<>(Arrays.asList(valores));
+      if (combinada) clave.add(pl.getPeriodo());
+      conteos.merge(clave, 1, Integer::sum);
+    }
+
+    @Override void flush(PreparedStatement ps) throws SQLException {
+      for (var e : conteos.entrySet()) {
+        var clave = e.getKey();
+        for (int i = 0; i < clave.size(); i++) ps.setString(i + 1, clave.get(i));
+        ps.setInt(clave.size() + 1, e.getValue());
+        ps.addBatch();
+      }
+      conteos.clear();
+    }
+  }
+
+  static class ProyectosPorMesEstadoTableLoad extends ResumenTableLoad {
+
+    public ProyectosPorMesEstadoTableLoad() {
+      super("resumen_mes_estado", "proyectos", "mes", "estado");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) {
+      var mes = YearMonth.from(Instant.ofEpochMilli(pl.getPublicacionFecha())
+          .atOffset(ZoneOffset.ofHours(-5)));
+      sumar(pl, mes.toString(), pl.getEstado());
+    }
+  }
+
+  static class ProyectosPorSectorTableLoad extends ResumenTableLoad {
+
+    public ProyectosPorSectorTableLoad() {
+      super("resumen_sector", "proyectos", "sector");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) {
+      for (var sector : new HashSet<>(pl.getSectores())) sumar(pl, sector);
+    }
+  }
+
+  static class ProyectosPorGrupoTableLoad extends ResumenTableLoad {
+
+    public ProyectosPorGrupoTableLoad() {
+      super("resumen_grupo_parlamentario", "proyectos", "grupo_parlamentario");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) {
+      sumar(pl, pl.getGrupoParlamentario());
+    }
+  }
+
+  static class LeyesPorAutorTableLoad extends ResumenTableLoad {
+
+    public LeyesPorAutorTableLoad() {
+      super("resumen_autor_leyes", "leyes", "congresista");
+    }
+
+    @Override void addBatch(PreparedStatement ps, ProyectoLey pl) {
+      if (pl.getLey() == null) return;
+      var autores = new HashSet<String>();
+      for (var c : pl.getAutores()) autores.add(c.getNombreCompleto());
+      for (var autor : autores) sumar(pl, autor);
+    }
+  }
+
   public static void main(String[] args) throws IOException, SQLException {
     var avro = Path.of("data/proyectos-ley-2016.avro");
     var loader = new ProyectosLeyLoadSqlite();
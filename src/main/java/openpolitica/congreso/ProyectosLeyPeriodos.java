@@ -0,0 +1,18 @@
+package openpolitica.congreso;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+public class ProyectosLeyPeriodos {
+  public static void main(String[] args) throws IOException, SQLException {
+    var loader = new ProyectosLeyLoadSqlite();
+    loader.saveCombined(
+        List.of(
+            Path.of("data/proyectos-ley-2006.avro"),
+            Path.of("data/proyectos-ley-2011.avro"),
+            Path.of("data/proyectos-ley-2016.avro")),
+        Path.of("data/proyectos-ley.db"));
+  }
+}
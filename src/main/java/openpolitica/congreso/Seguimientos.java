@@ -0,0 +1,75 @@
+package openpolitica.congreso;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import openpolitica.congreso.leyes.Seguimiento;
+
+/**
+ * Eventos del texto de seguimiento ("Envío a Comisión"): cada fecha dd/MM/yyyy empieza un evento
+ * que termina en la siguiente fecha. Se recorre el texto una sola vez y en el mismo recorrido se
+ * toman los sectores de los eventos "Decretado a...".
+ */
+final class Seguimientos {
+
+  static final String DECRETADO = "Decretado a...";
+  static final int LONGITUD_FECHA = "dd/MM/yyyy".length();
+
+  final List<Seguimiento> eventos = new ArrayList<>();
+  final List<String> sectores = new ArrayList<>();
+
+  private Seguimientos() {
+  }
+
+  /**
+   * El texto antes de la primera fecha y las fechas sin texto se descartan; cada evento queda con
+   * la fecha que lo precede.
+   */
+  static Seguimientos leer(String texto, ToLongFunction<String> fecha) {
+    var seguimientos = new Seguimientos();
+    if (texto == null || texto.isBlank()) return seguimientos;
+    var n = texto.length();
+    var inicio = -1;
+    var i = 0;
+    while (i <= n - LONGITUD_FECHA) {
+      if (esFecha(texto, i)) {
+        if (inicio >= 0) seguimientos.agregar(texto, inicio, i, fecha);
+        inicio = i;
+        i += LONGITUD_FECHA;
+      } else {
+        i++;
+      }
+    }
+    if (inicio >= 0) seguimientos.agregar(texto, inicio, n, fecha);
+    return seguimientos;
+  }
+
+  private void agregar(String texto, int inicio, int fin, ToLongFunction<String> fecha) {
+    var evento = texto.substring(inicio + LONGITUD_FECHA, fin).trim();
+    if (evento.isBlank()) return;
+    eventos.add(Seguimiento.newBuilder()
+        .setEvento(evento)
+        .setFecha(fecha.applyAsLong(texto.substring(inicio, inicio + LONGITUD_FECHA)))
+        .build());
+    if (evento.startsWith(DECRETADO) && evento.length() > DECRETADO.length()) {
+      var sector = evento.substring(DECRETADO.length() + 1).strip();
+      var guion = sector.indexOf('-');
+      sectores.add(Simbolos.de(guion >= 0 ? sector.substring(0, guion) : sector));
+    }
+  }
+
+  // \d{2}/\d{2}/\d{4} en la posicion i
+  static boolean esFecha(String texto, int i) {
+    return digito(texto, i) && digito(texto, i + 1)
+        && texto.charAt(i + 2) == '/'
+        && digito(texto, i + 3) && digito(texto, i + 4)
+        && texto.charAt(i + 5) == '/'
+        && digito(texto, i + 6) && digito(texto, i + 7)
+        && digito(texto, i + 8) && digito(texto, i + 9);
+  }
+
+  private static boolean digito(String texto, int i) {
+    var c = texto.charAt(i);
+    return c >= '0' && c <= '9';
+  }
+}
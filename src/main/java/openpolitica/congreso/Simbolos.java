@@ -0,0 +1,77 @@
+package openpolitica.congreso;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import openpolitica.congreso.leyes.ProyectoLey;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.specific.SpecificDatumReader;
+
+/**
+ * Tabla de simbolos para los textos que se repiten en todos los proyectos de un periodo: estado,
+ * periodo, legislatura, proponente, grupo parlamentario, sectores, congresistas y tipo de
+ * documento. Cada texto queda en una sola instancia, compartida entre hilos.
+ *
+ * <p>Solo se agregan campos de valores acotados; titulos, sumillas y eventos son casi todos
+ * distintos y no ganarian nada. La tabla dura lo que el proceso, que carga varios periodos, asi
+ * que se acota a {@code MAXIMO} textos: pasado ese numero los textos nuevos se devuelven tal cual.
+ */
+final class Simbolos {
+
+  static final int MAXIMO = Integer.getInteger("simbolos.maximo", 16384);
+
+  static final ConcurrentHashMap<String, String> TABLA = new ConcurrentHashMap<>(4096);
+
+  private Simbolos() {
+  }
+
+  static String de(String texto) {
+    if (texto == null) return null;
+    // get no bloquea; putIfAbsent solo la primera vez que aparece el texto
+    var canonico = TABLA.get(texto);
+    if (canonico != null) return canonico;
+    // size() suma contadores, solo se consulta cuando el texto es nuevo
+    if (TABLA.size() >= MAXIMO) return texto;
+    canonico = TABLA.putIfAbsent(texto, texto);
+    return canonico == null ? texto : canonico;
+  }
+
+  // reemplaza en la misma lista, solo los elementos que no son ya canonicos
+  static void de(List<String> textos) {
+    if (textos == null) return;
+    for (int i = 0; i < textos.size(); i++) {
+      var texto = textos.get(i);
+      var canonico = de(texto);
+      if (canonico != texto) textos.set(i, canonico);
+    }
+  }
+
+  static ProyectoLey proyecto(ProyectoLey proyecto) {
+    proyecto.setPeriodo(de(proyecto.getPeriodo()));
+    proyecto.setEstado(de(proyecto.getEstado()));
+    proyecto.setLegislatura(de(proyecto.getLegislatura()));
+    proyecto.setProponente(de(proyecto.getProponente()));
+    proyecto.setGrupoParlamentario(de(proyecto.getGrupoParlamentario()));
+    de(proyecto.getSectores());
+    de(proyecto.getAdherentes());
+    if (proyecto.getAutores() != null) {
+      for (var autor : proyecto.getAutores()) autor.setNombreCompleto(de(autor.getNombreCompleto()));
+    }
+    if (proyecto.getExpediente() != null && proyecto.getExpediente().getDocumentos() != null) {
+      for (var documento : proyecto.getExpediente().getDocumentos()) {
+        documento.setTipo(de(documento.getTipo()));
+      }
+    }
+    return proyecto;
+  }
+
+  /** Lector Avro que deja los campos repetidos de cada proyecto en su instancia canonica. */
+  static DatumReader<ProyectoLey> lector() {
+    return new SpecificDatumReader<>(ProyectoLey.class) {
+      @Override public ProyectoLey read(ProyectoLey reuse, Decoder in) throws IOException {
+        return proyecto(super.read(reuse, in));
+      }
+    };
+  }
+}
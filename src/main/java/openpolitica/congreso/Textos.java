@@ -0,0 +1,85 @@
+package openpolitica.congreso;
+
+/**
+ * Limpieza de textos extraidos de las paginas del congreso en un solo recorrido por caracter.
+ */
+final class Textos {
+
+  static final char NBSP = '\u00A0';
+
+  private Textos() {
+  }
+
+  /**
+   * Normaliza un titulo como hacian los reemplazos encadenados {@code "" -> "}, {@code " -> '},
+   * {@code ,, -> ,} y {@code : -> .-}: una serie de k comillas dobles queda en ceil(k/2) comillas
+   * simples y una serie de k comas en ceil(k/2) comas. Ademas los espacios, incluido el espacio
+   * duro (NBSP), se reducen a uno solo y se quitan al inicio y al final. Si no hay nada que
+   * cambiar devuelve el mismo texto.
+   */
+  static String titulo(String texto) {
+    if (!requiereCambios(texto)) return texto;
+    var sb = new StringBuilder(texto.length() + 8);
+    var espacioPendiente = false;
+    var n = texto.length();
+    var i = 0;
+    while (i < n) {
+      var c = texto.charAt(i);
+      if (espacio(c)) {
+        espacioPendiente = sb.length() > 0;
+        i++;
+        continue;
+      }
+      if (espacioPendiente) {
+        sb.append(' ');
+        espacioPendiente = false;
+      }
+      switch (c) {
+        case '"', ',' -> {
+          var fin = i;
+          while (fin < n && texto.charAt(fin) == c) fin++;
+          var salida = c == '"' ? '\'' : ',';
+          for (int k = 0; k < (fin - i + 1) / 2; k++) sb.append(salida);
+          i = fin;
+        }
+        case ':' -> {
+          sb.append(".-");
+          i++;
+        }
+        default -> {
+          sb.append(c);
+          i++;
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  private static boolean requiereCambios(String texto) {
+    var n = texto.length();
+    if (n == 0) return false;
+    if (espacio(texto.charAt(0)) || espacio(texto.charAt(n - 1))) return true;
+    for (int i = 0; i < n; i++) {
+      var c = texto.charAt(i);
+      switch (c) {
+        case '"', ':', NBSP -> {
+          return true;
+        }
+        case ',' -> {
+          if (i + 1 < n && texto.charAt(i + 1) == ',') return true;
+        }
+        default -> {
+          if (Character.isWhitespace(c)
+              && (c != ' ' || (i + 1 < n && espacio(texto.charAt(i + 1))))) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean espacio(char c) {
+    return Character.isWhitespace(c) || c == NBSP;
+  }
+}
@@ -0,0 +1,74 @@
+package openpolitica.congreso;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+class FechasTest {
+
+  // texto y resultado grabados con fecha(Element) antes de Fechas.documento
+  static List<String[]> muestra() throws IOException {
+    var muestra = new ArrayList<String[]>();
+    try (var reader = new BufferedReader(new InputStreamReader(
+        FechasTest.class.getResourceAsStream("fechas-documento.tsv"), StandardCharsets.UTF_8))) {
+      String linea;
+      while ((linea = reader.readLine()) != null) {
+        if (!linea.startsWith("#")) muestra.add(linea.split("\t", -1));
+      }
+    }
+    return muestra;
+  }
+
+  @Test
+  void documentoIgualQueAntes() throws IOException {
+    var casos = new ArrayList<Executable>();
+    for (var caso : muestra()) {
+      var texto = caso[0];
+      var esperado = caso[1];
+      casos.add(() -> {
+        switch (esperado) {
+          case "error" -> assertThrows(DateTimeParseException.class,
+              () -> Fechas.documento(texto), texto);
+          case "null" -> assertEquals(Fechas.SIN_FECHA, Fechas.documento(texto), texto);
+          default -> assertEquals(Long.parseLong(esperado), Fechas.documento(texto), texto);
+        }
+      });
+    }
+    assertAll(casos);
+  }
+
+  @Test
+  void documentoCorrigeFechasConocidas() {
+    assertEquals(Fechas.documento("15/02/19"), Fechas.documento("02/15/19"));
+    assertEquals(Fechas.documento("20/07/18"), Fechas.documento("20/0708"));
+    assertEquals(Fechas.documento("14/01/21"), Fechas.documento("O14/01/21"));
+    assertEquals(Fechas.documento("22/09/09"), Fechas.documento(", 22/09/09"));
+    assertEquals(Fechas.documento("06/12/2006"), Fechas.documento("06/1206"));
+  }
+
+  @Test
+  void documentoSinFecha() {
+    assertEquals(Fechas.SIN_FECHA, Fechas.documento(""));
+    assertEquals(Fechas.SIN_FECHA, Fechas.documento("Sinfecha"));
+    assertEquals(Fechas.SIN_FECHA, Fechas.documento("s/f"));
+    assertEquals(Fechas.SIN_FECHA, Fechas.documento("12/03/2019 10:30"));
+    assertEquals(Fechas.SIN_FECHA, Fechas.documento("ver doc"));
+  }
+
+  @Test
+  void documentoInvalido() {
+    assertThrows(DateTimeParseException.class, () -> Fechas.documento("32/01/2019"));
+    assertThrows(DateTimeParseException.class, () -> Fechas.documento("15.03.19"));
+    assertThrows(DateTimeParseException.class, () -> Fechas.documento("15/319"));
+  }
+}
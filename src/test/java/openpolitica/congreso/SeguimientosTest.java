@@ -0,0 +1,74 @@
+package openpolitica.congreso;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import openpolitica.congreso.leyes.Seguimiento;
+import org.junit.jupiter.api.Test;
+
+class SeguimientosTest {
+
+  static Seguimientos leer(String texto) {
+    return Seguimientos.leer(texto, Fechas::seguimiento);
+  }
+
+  static List<String> eventos(Seguimientos seguimientos) {
+    return seguimientos.eventos.stream()
+        .map(Seguimiento::getEvento)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void eventosConSuFecha() {
+    var seguimientos = leer("12/03/2019 Presentado 13/03/2019 En comision Salud");
+    assertEquals(List.of("Presentado", "En comision Salud"), eventos(seguimientos));
+    assertEquals(Fechas.seguimiento("12/03/2019"), seguimientos.eventos.get(0).getFecha());
+    assertEquals(Fechas.seguimiento("13/03/2019"), seguimientos.eventos.get(1).getFecha());
+  }
+
+  @Test
+  void textoAntesDeLaPrimeraFecha() {
+    var seguimientos = leer("Envio a Comision 12/03/2019 Presentado 13/03/2019 Publicado");
+    assertEquals(List.of("Presentado", "Publicado"), eventos(seguimientos));
+    assertEquals(Fechas.seguimiento("12/03/2019"), seguimientos.eventos.get(0).getFecha());
+    assertEquals(Fechas.seguimiento("13/03/2019"), seguimientos.eventos.get(1).getFecha());
+  }
+
+  @Test
+  void fechaSinTexto() {
+    var seguimientos = leer("12/03/2019   13/03/2019 Presentado");
+    assertEquals(List.of("Presentado"), eventos(seguimientos));
+    assertEquals(Fechas.seguimiento("13/03/2019"), seguimientos.eventos.get(0).getFecha());
+  }
+
+  @Test
+  void decretadoSinSector() {
+    var seguimientos = leer("12/03/2019 Decretado a...");
+    assertEquals(List.of("Decretado a..."), eventos(seguimientos));
+    assertTrue(seguimientos.sectores.isEmpty());
+  }
+
+  @Test
+  void sectoresDecretados() {
+    var seguimientos = leer("12/03/2019 Decretado a... Salud "
+        + "13/03/2019 Decretado a... Economia-Dictamen "
+        + "14/03/2019 En comision");
+    assertEquals(List.of("Salud", "Economia"), seguimientos.sectores);
+    assertEquals(3, seguimientos.eventos.size());
+  }
+
+  @Test
+  void fechasCorregidas() {
+    var seguimientos = leer("35/07/2014 Presentado");
+    assertEquals(Fechas.seguimiento("25/07/2014"), seguimientos.eventos.get(0).getFecha());
+  }
+
+  @Test
+  void sinTexto() {
+    assertTrue(leer(null).eventos.isEmpty());
+    assertTrue(leer("  ").eventos.isEmpty());
+    assertTrue(leer("Sin seguimiento").eventos.isEmpty());
+  }
+}
@@ -0,0 +1,68 @@
+package openpolitica.congreso;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+class TextosTest {
+
+  // texto y titulo esperado
+  static final String[][] TITULOS = {
+      {"a\"b", "a'b"},
+      {"a\"\"b", "a'b"},
+      {"a\"\"\"b", "a''b"},
+      {"a\"\"\"\"b", "a''b"},
+      {"a,,b", "a,b"},
+      {"a,,,b", "a,,b"},
+      {"a,,,,b", "a,,b"},
+      {"Ley: marco", "Ley.- marco"},
+      {"a::b", "a.-.-b"},
+      {"Ley\u00A0de\u00A0salud", "Ley de salud"},
+      {"Ley \u00A0 de  salud", "Ley de salud"},
+      {"  Ley de salud \t", "Ley de salud"},
+      {"\u00A0Ley de salud\u00A0", "Ley de salud"},
+      {"Ley\tde\nsalud", "Ley de salud"},
+      {" \"Ley\"  ,, marco: general ", "'Ley' , marco.- general"},
+      {"", ""},
+  };
+
+  @Test
+  void titulo() {
+    var casos = new ArrayList<Executable>();
+    for (var caso : TITULOS) {
+      casos.add(() -> assertEquals(caso[1], Textos.titulo(caso[0]), caso[0]));
+    }
+    assertAll(casos);
+  }
+
+  // sin espacios de sobra, los reemplazos encadenados de antes dan lo mismo
+  @Test
+  void tituloIgualQueLosReemplazos() {
+    var casos = new ArrayList<Executable>();
+    for (var caso : TITULOS) {
+      var texto = caso[0];
+      if (!texto.equals(texto.strip().replaceAll("\\s+", " "))
+          || texto.indexOf(Textos.NBSP) >= 0) {
+        continue;
+      }
+      var antes = texto
+          .replaceAll("\"\"", "\"")
+          .replaceAll("\"", "'")
+          .replaceAll(",,", ",")
+          .replaceAll(":", ".-");
+      casos.add(() -> assertEquals(antes, Textos.titulo(texto), texto));
+    }
+    assertAll(casos);
+  }
+
+  @Test
+  void tituloSinCambiosEsElMismoTexto() {
+    for (var texto : new String[] {"Ley de salud", "a,b", "Ley 123, de salud", "x"}) {
+      assertSame(texto, Textos.titulo(texto), texto);
+    }
+  }
+}